@@ -0,0 +1,137 @@
+package com.dimer.myorm;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+public class AsyncRepository<T extends Entity<I>, I> {
+    private final Class<T> type;
+    private final ConnectionPool pool;
+    private final Executor executor;
+    private final Semaphore permits;
+    private final int maxConcurrency;
+
+    public static <E extends Entity<I>, I> AsyncRepository<E, I> of(final Class<E> type) {
+        final ConnectionPool pool = ConnectionFactory.getPool();
+        return new AsyncRepository<>(type, pool, defaultExecutor(), pool.getMaxSize());
+    }
+
+    public AsyncRepository(final Class<T> type, final ConnectionPool pool, final Executor executor,
+                           final int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("Max concurrency must be greater than zero.");
+        }
+
+        this.type = type;
+        this.pool = pool;
+        this.executor = executor;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency, true);
+    }
+
+    public static Executor defaultExecutor() {
+        return DefaultExecutor.INSTANCE;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    public CompletableFuture<List<T>> findAll() {
+        return submit(Repository::findAll);
+    }
+
+    public CompletableFuture<Page<T, I>> findPage(I afterId, int limit) {
+        return submit(repository -> repository.findPage(afterId, limit));
+    }
+
+    public CompletableFuture<T> find(I id) {
+        return submit(repository -> repository.find(id));
+    }
+
+    public CompletableFuture<List<T>> findAllById(Collection<I> ids) {
+        return submit(repository -> repository.findAllById(ids));
+    }
+
+    public CompletableFuture<T> save(T entity) {
+        return submit(repository -> repository.save(entity));
+    }
+
+    public CompletableFuture<List<T>> saveAll(List<T> entities) {
+        return submit(repository -> repository.saveAll(entities));
+    }
+
+    public CompletableFuture<Boolean> delete(T entity) {
+        return submit(repository -> repository.delete(entity));
+    }
+
+    public CompletableFuture<Boolean> deleteById(I id) {
+        return submit(repository -> repository.deleteById(id));
+    }
+
+    public CompletableFuture<Integer> deleteAllById(Collection<I> ids) {
+        return submit(repository -> repository.deleteAllById(ids));
+    }
+
+    public CompletableFuture<Integer> deleteWhere(String column, Object value) {
+        return submit(repository -> repository.deleteWhere(column, value));
+    }
+
+    public CompletableFuture<T> findByColumn(String column, Object value) {
+        return submit(repository -> repository.findByColumn(column, value));
+    }
+
+    public CompletableFuture<List<T>> findAllByColumn(String column, Object value) {
+        return submit(repository -> repository.findAllByColumn(column, value));
+    }
+
+    public CompletableFuture<Page<T, I>> findPageByColumn(String column, Object value, I afterId, int limit) {
+        return submit(repository -> repository.findPageByColumn(column, value, afterId, limit));
+    }
+
+    public CompletableFuture<Boolean> exists(I id) {
+        return submit(repository -> repository.exists(id));
+    }
+
+    private <R> CompletableFuture<R> submit(final Function<Repository<T, I>, R> operation) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a permit of " + type.getSimpleName(), e);
+            }
+
+            try (Session session = new Session(pool)) {
+                return operation.apply(session.getRepository(type));
+            } finally {
+                permits.release();
+            }
+        }, executor);
+    }
+
+    private static final class DefaultExecutor {
+        private static final ExecutorService INSTANCE = createExecutor();
+
+        private static ExecutorService createExecutor() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return Executors.newCachedThreadPool(runnable -> {
+                    final Thread thread = new Thread(runnable, "my-orm-async");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.dimer.myorm;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import static java.util.Objects.isNull;
+
+public class AsyncSqlLogger implements SqlListener, AutoCloseable {
+    private static final int DEFAULT_CAPACITY = 8192;
+    private static final long POLL_TIMEOUT_MILLIS = 100;
+
+    private final BlockingQueue<String> queue;
+    private final Consumer<String> sink;
+    private final boolean logParameters;
+    private final Thread writer;
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean closed;
+
+    public AsyncSqlLogger() {
+        this(DEFAULT_CAPACITY, System.out::println);
+    }
+
+    public AsyncSqlLogger(final int capacity, final Consumer<String> sink) {
+        this(capacity, sink, false);
+    }
+
+    public AsyncSqlLogger(final int capacity, final Consumer<String> sink, final boolean logParameters) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.sink = sink;
+        this.logParameters = logParameters;
+        this.writer = new Thread(this::drain, "my-orm-sql-logger");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onStatement(final String sql, final PreparedStatement statement, final long elapsedNanos) {
+        log("SQL: " + (logParameters ? statement : sql));
+    }
+
+    public void log(final String line) {
+        if (closed || !queue.offer(line)) {
+            dropped.increment();
+        }
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    private void drain() {
+        final List<String> lines = new ArrayList<>();
+
+        try {
+            while (!closed || !queue.isEmpty()) {
+                final String line = queue.poll(POLL_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+
+                if (isNull(line)) {
+                    continue;
+                }
+
+                lines.add(line);
+                queue.drainTo(lines);
+
+                for (final String pending : lines) {
+                    sink.accept(pending);
+                }
+
+                lines.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.dimer.myorm;
+
+import java.util.*;
+
+final class CollectionBatch {
+    private final Session session;
+    private final Column column;
+    private final Class<?> ownerKeyType;
+    private final Map<Object, List<Object>> owners = new LinkedHashMap<>();
+
+    CollectionBatch(final Session session, final Column column, final Class<?> ownerKeyType) {
+        this.session = session;
+        this.column = column;
+        this.ownerKeyType = ownerKeyType;
+    }
+
+    public void add(final Object id, final Object owner) {
+        owners.computeIfAbsent(id, key -> new ArrayList<>(1)).add(owner);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void load() {
+        if (owners.isEmpty()) {
+            return;
+        }
+
+        Instrumentation.relationLoaded(column, owners.size());
+
+        final Repository<Entity<Object>, Object> repository = session.getRepository(
+                (Class<Entity<Object>>) column.getRelatedType());
+        final Map<Object, List<Entity<Object>>> entitiesByOwner = repository.findAllGroupedByColumn(
+                column.getName(), ownerKeyType, owners.keySet());
+
+        for (final Map.Entry<Object, List<Object>> owner : owners.entrySet()) {
+            final List<Entity<Object>> entities = entitiesByOwner.getOrDefault(owner.getKey(), Collections.emptyList());
+
+            for (final Object entity : owner.getValue()) {
+                final Object value = column.getValue(entity);
+
+                if (value instanceof LazyList) {
+                    ((LazyList<Entity<Object>>) value).initialize(new ArrayList<>(entities));
+                } else if (!column.isLazyLoading()) {
+                    column.setValue(entity, new ArrayList<>(entities));
+                }
+            }
+        }
+
+        owners.clear();
+    }
+}
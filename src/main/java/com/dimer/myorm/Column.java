@@ -0,0 +1,112 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.FetchType;
+import com.dimer.myorm.annotations.ManyToOne;
+import com.dimer.myorm.annotations.OneToMany;
+import com.dimer.myorm.annotations.OneToOne;
+
+import java.lang.reflect.Field;
+
+final class Column {
+    private final String name;
+    private final Field field;
+    private final ColumnType columnType;
+    private final FetchType fetchType;
+    private final Class<?> relatedType;
+    private final FieldAccessor accessor;
+    private final String getterName;
+
+    Column(final String name, final Field field, final ColumnType columnType, final Class<?> relatedType) {
+        this.name = name;
+        this.field = field;
+        this.columnType = columnType;
+        this.relatedType = relatedType;
+        this.fetchType = readFetchType();
+        this.accessor = new FieldAccessor(field);
+        this.getterName = "get" + field.getName().substring(0, 1).toUpperCase() + field.getName().substring(1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Field get() {
+        return field;
+    }
+
+    public FieldAccessor getAccessor() {
+        return accessor;
+    }
+
+    public Object getValue(final Object entity) {
+        return accessor.get(entity);
+    }
+
+    public void setValue(final Object entity, final Object value) {
+        accessor.set(entity, value);
+    }
+
+    public String getGetterName() {
+        return getterName;
+    }
+
+    public ColumnType getColumnType() {
+        return columnType;
+    }
+
+    public Class<?> getRelatedType() {
+        return relatedType;
+    }
+
+    public boolean isRelation() {
+        return columnType != ColumnType.SIMPLE;
+    }
+
+    public boolean isOneToOne() {
+        return columnType == ColumnType.ONE_TO_ONE;
+    }
+
+    public boolean isOneToMany() {
+        return columnType == ColumnType.ONE_TO_MANY;
+    }
+
+    public boolean isManyToOne() {
+        return columnType == ColumnType.MANY_TO_ONE;
+    }
+
+    public FetchType getFetchType() {
+        return fetchType;
+    }
+
+    public boolean isJoinFetch() {
+        return (isOneToOne() || isManyToOne()) && FetchType.JOIN.equals(fetchType);
+    }
+
+    public boolean isLazyLoading() {
+        return isRelation() && FetchType.LAZY.equals(fetchType);
+    }
+
+    public boolean isLazyCollection() {
+        return isOneToMany() && isLazyLoading();
+    }
+
+    public boolean isCountSize() {
+        return isLazyCollection() && field.getAnnotation(OneToMany.class).countSize();
+    }
+
+    private FetchType readFetchType() {
+        if (isOneToMany()) {
+            return field.getAnnotation(OneToMany.class).fetchType();
+        }
+
+        if (isOneToOne()) {
+            return field.getAnnotation(OneToOne.class).fetchType();
+        }
+
+        if (isManyToOne()) {
+            return field.getAnnotation(ManyToOne.class).fetchType();
+        }
+
+        return null;
+    }
+}
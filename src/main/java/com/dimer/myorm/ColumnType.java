@@ -0,0 +1,9 @@
+package com.dimer.myorm;
+
+enum ColumnType {
+    SIMPLE, ONE_TO_ONE, ONE_TO_MANY, MANY_TO_ONE;
+
+    public boolean isNotOneToMany() {
+        return this != ONE_TO_MANY;
+    }
+}
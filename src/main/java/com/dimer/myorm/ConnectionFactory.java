@@ -2,24 +2,47 @@ package com.dimer.myorm;
 
 import java.sql.Connection;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
 public abstract class ConnectionFactory {
-    private static Connection connection;
+    private static final ThreadLocal<Session> sessions = new ThreadLocal<>();
+
     private static ConnectionFactory factory;
+    private static volatile ConnectionPool pool;
+
+    public static synchronized void setFactory(ConnectionFactory connectionFactory) {
+        if (nonNull(pool)) {
+            pool.close();
+            pool = null;
+        }
 
-    public static void setFactory(ConnectionFactory connectionFactory) {
         factory = connectionFactory;
     }
 
-    protected static Connection getConnection() {
-        if (factory == null) {
+    public static synchronized ConnectionPool getPool() {
+        if (isNull(factory)) {
             throw new RuntimeException("Connection factory not initialized!");
         }
 
-        if (connection == null) {
-            connection = factory.createConnection();
+        if (isNull(pool)) {
+            pool = new ConnectionPool(factory::createConnection);
+        }
+
+        return pool;
+    }
+
+    protected static Session getSession() {
+        final Session session = sessions.get();
+
+        if (nonNull(session) && !session.isClosed() && nonNull(pool) && session.getPool() == pool) {
+            return session;
         }
 
-        return connection;
+        final Session threadSession = new Session(getPool(), true);
+        sessions.set(threadSession);
+
+        return threadSession;
     }
 
     protected abstract Connection createConnection();
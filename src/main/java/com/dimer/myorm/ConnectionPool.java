@@ -0,0 +1,407 @@
+package com.dimer.myorm;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+public final class ConnectionPool implements AutoCloseable {
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+
+    private final Supplier<Connection> connectionSupplier;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition available = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final StatementCacheStats statementCacheStats = new StatementCacheStats();
+
+    private int maxSize = 10;
+    private long acquireTimeoutMillis = 30_000;
+    private long idleTimeoutMillis = 600_000;
+    private int validationTimeoutSeconds = 5;
+    private int statementCacheSize = StatementCache.DEFAULT_SIZE;
+
+    private int total;
+    private int waiting;
+    private boolean closed;
+
+    private long borrowCount;
+    private long timeoutCount;
+    private long createdCount;
+    private long evictedCount;
+    private long waitNanos;
+
+    public ConnectionPool(final Supplier<Connection> connectionSupplier) {
+        this.connectionSupplier = connectionSupplier;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(final int maxSize) {
+        if (maxSize < 1) {
+            throw new RuntimeException("Pool max size must be greater than zero.");
+        }
+
+        final List<PooledConnection> excess = new ArrayList<>();
+
+        lock.lock();
+        try {
+            this.maxSize = maxSize;
+
+            while (total > maxSize && !idle.isEmpty()) {
+                excess.add(idle.pollLast());
+                total--;
+            }
+
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        excess.forEach(this::closeQuietly);
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    public void setAcquireTimeoutMillis(final long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public long getIdleTimeoutMillis() {
+        return idleTimeoutMillis;
+    }
+
+    public void setIdleTimeoutMillis(final long idleTimeoutMillis) {
+        this.idleTimeoutMillis = idleTimeoutMillis;
+    }
+
+    public int getValidationTimeoutSeconds() {
+        return validationTimeoutSeconds;
+    }
+
+    public void setValidationTimeoutSeconds(final int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    public int getStatementCacheSize() {
+        return statementCacheSize;
+    }
+
+    public void setStatementCacheSize(final int statementCacheSize) {
+        if (statementCacheSize < 1) {
+            throw new RuntimeException("Statement cache size must be greater than zero.");
+        }
+
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public StatementCacheStats getStatementCacheStats() {
+        return statementCacheStats;
+    }
+
+    PooledConnection borrow() {
+        evictIdle();
+
+        final long start = System.nanoTime();
+
+        while (true) {
+            final PooledConnection connection = takeIdleOrReserve(start);
+
+            if (isNull(connection)) {
+                return create(start);
+            }
+
+            if (isValid(connection)) {
+                recordBorrow(start);
+                return connection;
+            }
+
+            discard(connection);
+        }
+    }
+
+    void release(final PooledConnection connection) {
+        final boolean reusable = reset(connection);
+        PooledConnection discarded = null;
+
+        lock.lock();
+        try {
+            if (closed || !reusable || total > maxSize) {
+                total--;
+                discarded = connection;
+            } else {
+                connection.touch();
+                idle.addFirst(connection);
+            }
+
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        if (nonNull(discarded)) {
+            closeQuietly(discarded);
+        }
+
+        evictIdle();
+    }
+
+    public void evictIdle() {
+        final List<PooledConnection> expired = new ArrayList<>();
+        final long limit = System.currentTimeMillis() - idleTimeoutMillis;
+
+        lock.lock();
+        try {
+            while (!idle.isEmpty() && idle.peekLast().getLastUsed() < limit) {
+                expired.add(idle.pollLast());
+                total--;
+                evictedCount++;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        expired.forEach(this::closeQuietly);
+    }
+
+    private PooledConnection takeIdleOrReserve(final long start) {
+        final long deadline = start + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+
+        lock.lock();
+        try {
+            waiting++;
+
+            while (true) {
+                if (closed) {
+                    throw new RuntimeException("Connection pool is closed.");
+                }
+
+                if (!idle.isEmpty()) {
+                    return idle.pollFirst();
+                }
+
+                if (total < maxSize) {
+                    total++;
+                    return null;
+                }
+
+                final long remaining = deadline - System.nanoTime();
+
+                if (remaining <= 0) {
+                    timeoutCount++;
+                    throw new RuntimeException("Timeout of " + acquireTimeoutMillis
+                            + "ms waiting for a connection, pool size " + total + ".");
+                }
+
+                available.awaitNanos(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a connection.", e);
+        } finally {
+            waiting--;
+            lock.unlock();
+        }
+    }
+
+    private PooledConnection create(final long start) {
+        try {
+            final PooledConnection connection = new PooledConnection(connectionSupplier.get(), statementCacheSize,
+                    statementCacheStats);
+
+            lock.lock();
+            try {
+                createdCount++;
+            } finally {
+                lock.unlock();
+            }
+
+            recordBorrow(start);
+
+            return connection;
+        } catch (RuntimeException e) {
+            lock.lock();
+            try {
+                total--;
+                available.signal();
+            } finally {
+                lock.unlock();
+            }
+
+            throw e;
+        }
+    }
+
+    private boolean isValid(final PooledConnection connection) {
+        if (System.currentTimeMillis() - connection.getLastUsed() < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+
+        try {
+            return connection.getConnection().isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private boolean reset(final PooledConnection connection) {
+        try {
+            final Connection jdbcConnection = connection.getConnection();
+
+            if (jdbcConnection.isClosed()) {
+                return false;
+            }
+
+            if (!jdbcConnection.getAutoCommit()) {
+                jdbcConnection.rollback();
+                jdbcConnection.setAutoCommit(true);
+            }
+
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void discard(final PooledConnection connection) {
+        lock.lock();
+        try {
+            total--;
+            evictedCount++;
+            available.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        closeQuietly(connection);
+    }
+
+    private void recordBorrow(final long start) {
+        lock.lock();
+        try {
+            borrowCount++;
+            waitNanos += System.nanoTime() - start;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeQuietly(final PooledConnection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // the connection is being dropped from the pool anyway
+        }
+    }
+
+    public int getTotalConnections() {
+        lock.lock();
+        try {
+            return total;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getIdleConnections() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getActiveConnections() {
+        lock.lock();
+        try {
+            return total - idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getWaitingThreads() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getBorrowCount() {
+        lock.lock();
+        try {
+            return borrowCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTimeoutCount() {
+        lock.lock();
+        try {
+            return timeoutCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getCreatedCount() {
+        lock.lock();
+        try {
+            return createdCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getEvictedCount() {
+        lock.lock();
+        try {
+            return evictedCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getAverageWaitMillis() {
+        lock.lock();
+        try {
+            return borrowCount == 0 ? 0 : waitNanos / (double) borrowCount / 1_000_000;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        final List<PooledConnection> connections;
+
+        lock.lock();
+        try {
+            closed = true;
+            connections = new ArrayList<>(idle);
+            total -= idle.size();
+            idle.clear();
+            available.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        connections.forEach(this::closeQuietly);
+    }
+}
@@ -0,0 +1,189 @@
+package com.dimer.myorm;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+
+public final class EntityCache {
+    private static final int SEGMENTS = 16;
+    private static final AtomicLong CLOCK = new AtomicLong();
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+    private final long ttlNanos;
+    private final AtomicLong invalidatedAt = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    EntityCache(final int maxSize, final long ttlSeconds) {
+        if (maxSize < 1) {
+            throw new RuntimeException("Entity cache size must be greater than zero.");
+        }
+
+        final int segmentSize = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(segmentSize);
+        }
+
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    Object[] get(final Object id) {
+        if (isNull(id)) {
+            return null;
+        }
+
+        final Object[] values = segmentOf(id).get(id, System.nanoTime());
+
+        if (isNull(values)) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+
+        return values;
+    }
+
+    static long readStamp() {
+        return CLOCK.get();
+    }
+
+    void putIfAbsent(final Object id, final Object[] values, final long readStamp) {
+        if (isNull(id)) {
+            return;
+        }
+
+        final long now = System.nanoTime();
+        segmentOf(id).putIfAbsent(id, values, readStamp, now, now + ttlNanos);
+    }
+
+    public void invalidate(final Object id) {
+        if (isNull(id)) {
+            return;
+        }
+
+        markInvalidated();
+        segmentOf(id).remove(id);
+    }
+
+    public void clear() {
+        markInvalidated();
+
+        for (final Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public int size() {
+        int size = 0;
+
+        for (final Segment segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRatio() {
+        final long hitCount = getHits();
+        final long total = hitCount + getMisses();
+
+        return total == 0 ? 0 : hitCount / (double) total;
+    }
+
+    private void markInvalidated() {
+        final long stamp = CLOCK.incrementAndGet();
+        invalidatedAt.accumulateAndGet(stamp, Math::max);
+    }
+
+    private Segment segmentOf(final Object id) {
+        final int hash = id.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+    }
+
+    private static final class Entry {
+        private final Object[] values;
+        private final long expiresAt;
+
+        private Entry(final Object[] values, final long expiresAt) {
+            this.values = values;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<Object, Entry> entries;
+
+        private Segment(final int maxSize) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<Object, Entry> eldest) {
+                    if (size() <= maxSize) {
+                        return false;
+                    }
+
+                    evictions.increment();
+                    return true;
+                }
+            };
+        }
+
+        private synchronized Object[] get(final Object id, final long now) {
+            final Entry entry = entries.get(id);
+
+            if (isNull(entry)) {
+                return null;
+            }
+
+            if (now - entry.expiresAt >= 0) {
+                entries.remove(id);
+                return null;
+            }
+
+            return entry.values;
+        }
+
+        private synchronized void putIfAbsent(final Object id, final Object[] values, final long readStamp,
+                                              final long now, final long expiresAt) {
+            if (invalidatedAt.get() > readStamp) {
+                return;
+            }
+
+            final Entry entry = entries.get(id);
+
+            if (isNull(entry) || now - entry.expiresAt >= 0) {
+                entries.put(id, new Entry(values, expiresAt));
+            }
+        }
+
+        private synchronized void remove(final Object id) {
+            entries.remove(id);
+        }
+
+        private synchronized void clear() {
+            entries.clear();
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.dimer.myorm;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+final class EntityCursor<T extends Entity<I>, I> implements Iterator<T>, AutoCloseable {
+    private final Repository<T, I> repository;
+    private final String sql;
+    private final PreparedStatement statement;
+    private final ResultSet result;
+    private final long readStamp;
+    private final int fetchSize;
+    private final Runnable onClose;
+
+    private Iterator<T> buffer = Collections.emptyIterator();
+    private boolean exhausted;
+    private boolean closed;
+
+    EntityCursor(final Repository<T, I> repository, final String sql, final PreparedStatement statement,
+                 final ResultSet result, final long readStamp, final int fetchSize, final Runnable onClose) {
+        this.repository = repository;
+        this.sql = sql;
+        this.statement = statement;
+        this.result = result;
+        this.readStamp = readStamp;
+        this.fetchSize = fetchSize;
+        this.onClose = onClose;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!buffer.hasNext()) {
+            if (exhausted || closed) {
+                close();
+                return false;
+            }
+
+            try {
+                final List<T> entities = repository.mapRows(sql, result, fetchSize, readStamp);
+
+                exhausted = entities.size() < fetchSize;
+                buffer = entities.iterator();
+            } catch (SQLException | RuntimeException e) {
+                close();
+                throw new RuntimeException("Error on read cursor of " + sql, e);
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return buffer.next();
+    }
+
+    Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                        Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        try {
+            try (statement; result) {
+                buffer = Collections.emptyIterator();
+            } finally {
+                onClose.run();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on close cursor of " + sql, e);
+        }
+    }
+}
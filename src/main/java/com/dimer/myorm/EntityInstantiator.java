@@ -0,0 +1,116 @@
+package com.dimer.myorm;
+
+import net.sf.cglib.proxy.Callback;
+import net.sf.cglib.proxy.Enhancer;
+import net.sf.cglib.proxy.Factory;
+import net.sf.cglib.proxy.NoOp;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.List;
+
+import static java.util.Objects.isNull;
+
+final class EntityInstantiator<T> {
+    private final Class<T> type;
+    private final List<Column> lazyColumns;
+
+    private volatile MethodHandle constructor;
+    private volatile Factory factory;
+
+    EntityInstantiator(final Class<T> type, final List<Column> lazyColumns) {
+        this.type = type;
+        this.lazyColumns = lazyColumns;
+    }
+
+    public boolean isProxied() {
+        return !lazyColumns.isEmpty();
+    }
+
+    public LazyLoader[] newLazyLoaders() {
+        final LazyLoader[] loaders = new LazyLoader[lazyColumns.size()];
+
+        for (int i = 0; i < loaders.length; i++) {
+            loaders[i] = new LazyLoader(lazyColumns.get(i));
+        }
+
+        return loaders;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T newInstance() {
+        try {
+            return (T) (Object) getConstructor().invokeExact();
+        } catch (Throwable e) {
+            throw new RuntimeException("Error on instantiate entity " + type.getSimpleName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    public T newInstance(final LazyLoader[] loaders) {
+        final Callback[] callbacks = new Callback[loaders.length + 1];
+        callbacks[0] = NoOp.INSTANCE;
+        System.arraycopy(loaders, 0, callbacks, 1, loaders.length);
+
+        return (T) getFactory().newInstance(callbacks);
+    }
+
+    private MethodHandle getConstructor() throws ReflectiveOperationException {
+        if (isNull(constructor)) {
+            final Constructor<T> declaredConstructor = type.getDeclaredConstructor();
+            declaredConstructor.setAccessible(true);
+
+            constructor = MethodHandles.lookup().unreflectConstructor(declaredConstructor)
+                    .asType(MethodType.methodType(Object.class));
+        }
+
+        return constructor;
+    }
+
+    private Factory getFactory() {
+        if (isNull(factory)) {
+            synchronized (this) {
+                if (isNull(factory)) {
+                    final Enhancer enhancer = new Enhancer();
+                    enhancer.setClassLoader(type.getClassLoader());
+                    enhancer.setSuperclass(type);
+                    enhancer.setCallbackFilter(this::getCallbackIndex);
+
+                    final Callback[] callbacks = new Callback[lazyColumns.size() + 1];
+                    callbacks[0] = NoOp.INSTANCE;
+                    System.arraycopy(newLazyLoaders(), 0, callbacks, 1, lazyColumns.size());
+                    enhancer.setCallbacks(callbacks);
+
+                    factory = (Factory) enhancer.create();
+                }
+            }
+        }
+
+        return factory;
+    }
+
+    public boolean isInitialized(final Object entity, final Column column) {
+        if (!(entity instanceof Factory)) {
+            return true;
+        }
+
+        final int index = lazyColumns.indexOf(column);
+
+        return index < 0 || ((LazyLoader) ((Factory) entity).getCallback(index + 1)).isInitialized();
+    }
+
+    private int getCallbackIndex(final Method method) {
+        if (method.getParameterCount() == 0) {
+            for (int i = 0; i < lazyColumns.size(); i++) {
+                if (method.getName().equals(lazyColumns.get(i).getGetterName())) {
+                    return i + 1;
+                }
+            }
+        }
+
+        return 0;
+    }
+}
@@ -0,0 +1,539 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.util.Objects.isNull;
+
+final class EntityMetadata<T> {
+
+    private static final Map<Class<?>, EntityMetadata<?>> CACHE = new ConcurrentHashMap<>();
+
+    private final Class<T> type;
+    private final String table;
+    private final Column id;
+    private final Map<String, Column> columns;
+    private final List<Column> persistentColumns;
+    private final List<Column> relationColumns;
+    private final List<Column> lazyColumns;
+    private final EntityInstantiator<T> instantiator;
+    private final EntityCache entityCache;
+    private final QueryCache queryCache;
+    private final int[] relationPersistentIndexes;
+    private final Class<?> primaryKeyType;
+
+    private final String insert;
+    private final String update;
+    private final String delete;
+    private final String exists;
+    private final String selectIdRange;
+    private final String insertOnConflict;
+    private final String merge;
+    private final Map<String, String> deleteByColumn;
+    private final Map<String, String> countByColumn;
+    private final Map<Integer, String> deleteByIds = new ConcurrentHashMap<>();
+    private final Map<Integer, String> selectByIds = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, String>> selectByColumnIn = new ConcurrentHashMap<>();
+    private final Map<BitSet, String> partialUpdates = new ConcurrentHashMap<>();
+
+    private final Map<String, RowMapper<T>> rowMappers = new ConcurrentHashMap<>();
+
+    private volatile Selects selects;
+
+    @SuppressWarnings("unchecked")
+    public static <T> EntityMetadata<T> of(final Class<T> type) {
+        final EntityMetadata<?> metadata = CACHE.get(type);
+
+        if (metadata != null) {
+            return (EntityMetadata<T>) metadata;
+        }
+
+        return (EntityMetadata<T>) CACHE.computeIfAbsent(type, EntityMetadata::new);
+    }
+
+    private EntityMetadata(final Class<T> type) {
+        this.type = type;
+        this.table = readTableName(type);
+
+        final Map<String, Column> columns = new LinkedHashMap<>();
+        final List<Column> persistentColumns = new ArrayList<>();
+        final List<Column> relationColumns = new ArrayList<>();
+        final List<Column> lazyColumns = new ArrayList<>();
+        Column id = null;
+
+        for (final Field field : type.getDeclaredFields()) {
+            field.setAccessible(true);
+
+            final String name = readColumnName(field);
+
+            if (field.isAnnotationPresent(Id.class)) {
+                id = new Column(name, field, ColumnType.SIMPLE, null);
+            } else {
+                final ColumnType columnType = readColumnType(field);
+                final Column column = new Column(name, field, columnType, readRelatedType(field, columnType));
+
+                columns.put(name, column);
+
+                if (columnType.isNotOneToMany()) {
+                    persistentColumns.add(column);
+                }
+
+                if (column.isRelation()) {
+                    relationColumns.add(column);
+                }
+
+                if (column.isLazyLoading() && !column.isOneToMany()) {
+                    lazyColumns.add(column);
+                }
+            }
+        }
+
+        this.id = id;
+        this.columns = Collections.unmodifiableMap(columns);
+        this.persistentColumns = Collections.unmodifiableList(persistentColumns);
+        this.relationColumns = Collections.unmodifiableList(relationColumns);
+        this.lazyColumns = Collections.unmodifiableList(lazyColumns);
+        this.instantiator = new EntityInstantiator<>(type, this.lazyColumns);
+        this.entityCache = readEntityCache(type);
+        this.queryCache = readQueryCache(type);
+        this.relationPersistentIndexes = new int[relationColumns.size()];
+
+        for (int i = 0; i < relationColumns.size(); i++) {
+            relationPersistentIndexes[i] = persistentColumns.indexOf(relationColumns.get(i));
+        }
+
+        this.primaryKeyType = readPrimaryKeyType(type, id);
+
+        this.insert = generateInsertStatement();
+        this.update = generateUpdateStatement();
+        this.delete = "delete from " + table + " where id = ?";
+        this.exists = "select exists (select id from " + table + " where id = ?)";
+        this.selectIdRange = "select min(id), max(id) from " + table;
+        this.insertOnConflict = generateInsertOnConflictStatement();
+        this.merge = generateMergeStatement();
+
+        final Map<String, String> deleteByColumn = new HashMap<>();
+        final Map<String, String> countByColumn = new HashMap<>();
+
+        for (final String column : columns.keySet()) {
+            deleteByColumn.put(column, "delete from " + table + " where " + column + " = ?");
+            countByColumn.put(column, "select count(*) from " + table + " where " + column + " = ?");
+        }
+
+        this.deleteByColumn = Collections.unmodifiableMap(deleteByColumn);
+        this.countByColumn = Collections.unmodifiableMap(countByColumn);
+    }
+
+    private Selects getSelects() {
+        if (isNull(selects)) {
+            synchronized (this) {
+                if (isNull(selects)) {
+                    selects = new Selects(this);
+                }
+            }
+        }
+
+        return selects;
+    }
+
+    private String generateInsertStatement() {
+        final StringJoiner fields = new StringJoiner(",");
+        final StringJoiner values = new StringJoiner(",");
+
+        for (final Column column : persistentColumns) {
+            fields.add(column.getName());
+            values.add("?");
+        }
+
+        return String.format("insert into %s (%s) values (%s)", table, fields, values);
+    }
+
+    private String generateUpdateStatement() {
+        final StringJoiner statements = new StringJoiner(",");
+
+        for (final Column column : persistentColumns) {
+            statements.add(column.getName() + " = ?");
+        }
+
+        return "update " + table + " set " + statements + " where id = ?";
+    }
+
+    private String generateInsertOnConflictStatement() {
+        final StringJoiner fields = new StringJoiner(",");
+        final StringJoiner values = new StringJoiner(",");
+        final StringJoiner updates = new StringJoiner(",");
+
+        for (final Column column : persistentColumns) {
+            fields.add(column.getName());
+            values.add("?");
+            updates.add(column.getName() + " = excluded." + column.getName());
+        }
+
+        fields.add("id");
+        values.add("?");
+
+        return String.format("insert into %s (%s) values (%s) on conflict (id) do update set %s",
+                table, fields, values, updates);
+    }
+
+    private String generateMergeStatement() {
+        final StringJoiner fields = new StringJoiner(",");
+        final StringJoiner values = new StringJoiner(",");
+        final StringJoiner sourceValues = new StringJoiner(",");
+        final StringJoiner updates = new StringJoiner(",");
+
+        for (final Column column : persistentColumns) {
+            fields.add(column.getName());
+            values.add("?");
+            sourceValues.add("source." + column.getName());
+            updates.add(column.getName() + " = source." + column.getName());
+        }
+
+        fields.add("id");
+        values.add("?");
+        sourceValues.add("source.id");
+
+        return String.format("merge into %s target using (values (%s)) source (%s) on target.id = source.id " +
+                        "when matched then update set %s when not matched then insert (%s) values (%s)",
+                table, values, fields, updates, fields, sourceValues);
+    }
+
+    private static String readTableName(final Class<?> type) {
+        final String tableName = Repository.camelToSnake(type.getSimpleName());
+
+        if (type.isAnnotationPresent(Schema.class)) {
+            final String schema = type.getAnnotation(Schema.class).value();
+            return schema + "." + tableName;
+        }
+
+        return tableName;
+    }
+
+    private static String readColumnName(final Field field) {
+        if (field.isAnnotationPresent(OneToOne.class)) {
+            return field.getAnnotation(OneToOne.class).column();
+        } else if (field.isAnnotationPresent(ManyToOne.class)) {
+            return field.getAnnotation(ManyToOne.class).column();
+        } else if (field.isAnnotationPresent(OneToMany.class)) {
+            return field.getAnnotation(OneToMany.class).column();
+        }
+
+        return Repository.camelToSnake(field.getName());
+    }
+
+    private static ColumnType readColumnType(final Field field) {
+        if (field.isAnnotationPresent(OneToOne.class)) return ColumnType.ONE_TO_ONE;
+        if (field.isAnnotationPresent(OneToMany.class)) return ColumnType.ONE_TO_MANY;
+        if (field.isAnnotationPresent(ManyToOne.class)) return ColumnType.MANY_TO_ONE;
+        return ColumnType.SIMPLE;
+    }
+
+    private static Class<?> readRelatedType(final Field field, final ColumnType columnType) {
+        switch (columnType) {
+            case ONE_TO_ONE:
+            case MANY_TO_ONE:
+                if (!Entity.class.isAssignableFrom(field.getType())) {
+                    throw new RuntimeException("Field annotated with one to one relation is not an Entity.");
+                }
+                return field.getType();
+            case ONE_TO_MANY:
+                if (!Collection.class.isAssignableFrom(field.getType())) {
+                    throw new RuntimeException("Field annotated with one to many relation is not a collection.");
+                }
+                return getListType(field);
+            default:
+                return null;
+        }
+    }
+
+    private static Class<?> getListType(final Field field) {
+        final Type[] types = ((ParameterizedType) field.getGenericType()).getActualTypeArguments();
+
+        if (types.length != 1) {
+            throw new RuntimeException("Can't get the type of related entity primary key.");
+        }
+
+        return (Class<?>) types[0];
+    }
+
+    private static EntityCache readEntityCache(final Class<?> type) {
+        final Cacheable cacheable = type.getAnnotation(Cacheable.class);
+        return isNull(cacheable) ? null : new EntityCache(cacheable.maxSize(), cacheable.ttlSeconds());
+    }
+
+    private static QueryCache readQueryCache(final Class<?> type) {
+        final Cacheable cacheable = type.getAnnotation(Cacheable.class);
+        return isNull(cacheable) || cacheable.queryCacheSize() < 1 ? null : new QueryCache(cacheable.queryCacheSize());
+    }
+
+    private static Class<?> readPrimaryKeyType(final Class<?> type, final Column id) {
+        final Optional<ParameterizedType> entityType = Arrays.stream(type.getGenericInterfaces())
+                .filter(genericInterface -> genericInterface instanceof ParameterizedType &&
+                        ((ParameterizedType) genericInterface).getRawType().equals(Entity.class))
+                .findFirst()
+                .map(ParameterizedType.class::cast);
+
+        if (entityType.isPresent()) {
+            return (Class<?>) entityType.get().getActualTypeArguments()[0];
+        }
+
+        return isNull(id) ? null : id.get().getType();
+    }
+
+    public Class<T> getType() {
+        return type;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public Column getId() {
+        return id;
+    }
+
+    public Map<String, Column> getColumns() {
+        return columns;
+    }
+
+    public List<Column> getPersistentColumns() {
+        return persistentColumns;
+    }
+
+    public List<Column> getRelationColumns() {
+        return relationColumns;
+    }
+
+    public List<Column> getLazyColumns() {
+        return lazyColumns;
+    }
+
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    public EntityInstantiator<T> getInstantiator() {
+        return instantiator;
+    }
+
+    public int getPersistentIndex(final int relation) {
+        return relationPersistentIndexes[relation];
+    }
+
+    public int getFieldsNumber() {
+        return persistentColumns.size();
+    }
+
+    public boolean hasColumn(final String column) {
+        return columns.containsKey(column);
+    }
+
+    public Class<?> getPrimaryKeyType() {
+        if (isNull(primaryKeyType)) {
+            throw new RuntimeException("Can't get the type of related entity primary key.");
+        }
+        return primaryKeyType;
+    }
+
+    public String getSelect() {
+        return getSelects().select;
+    }
+
+    public String getSelectAll() {
+        return getSelects().selectAll;
+    }
+
+    public String getInsert() {
+        return insert;
+    }
+
+    public String getUpdate() {
+        return update;
+    }
+
+    public String getDelete() {
+        return delete;
+    }
+
+    public String getSelectIdRange() {
+        return selectIdRange;
+    }
+
+    public String getSelectRange(final boolean ordered) {
+        return ordered ? getSelects().selectRangeOrdered : getSelects().selectRange;
+    }
+
+    public String getExists() {
+        return exists;
+    }
+
+    public JoinNode getJoinPlan() {
+        return getSelects().joinPlan;
+    }
+
+    public RowMapper<T> getRowMapper(final String sql, final ResultSet result) throws SQLException {
+        RowMapper<T> rowMapper = rowMappers.get(sql);
+
+        if (isNull(rowMapper)) {
+            final JoinNode joinPlan = getJoinPlan();
+            final String prefix = isNull(joinPlan) ? "" : joinPlan.getPrefix();
+
+            rowMapper = new RowMapper<>(this, result.getMetaData(), prefix);
+            rowMappers.put(sql, rowMapper);
+        }
+
+        return rowMapper;
+    }
+
+    public String getUpdate(final BitSet columns) {
+        String update = partialUpdates.get(columns);
+
+        if (isNull(update)) {
+            final StringJoiner statements = new StringJoiner(",");
+
+            for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+                statements.add(persistentColumns.get(i).getName() + " = ?");
+            }
+
+            update = "update " + table + " set " + statements + " where id = ?";
+            partialUpdates.put((BitSet) columns.clone(), update);
+        }
+
+        return update;
+    }
+
+    public String getUpsert(final SaveStrategy strategy) {
+        switch (strategy) {
+            case ON_CONFLICT:
+                return insertOnConflict;
+            case MERGE:
+                return merge;
+            default:
+                throw new RuntimeException("Save strategy " + strategy + " has no upsert statement.");
+        }
+    }
+
+    public String getDeleteByColumn(final String column) {
+        return deleteByColumn.get(column);
+    }
+
+    public String getSelectByIds(final int size) {
+        return selectByIds.computeIfAbsent(size, key ->
+                getSelectAll() + " where " + getSelects().reference("id") + " in (" + placeholders(key) + ")");
+    }
+
+    public String getCountByColumn(final String column) {
+        return countByColumn.get(column);
+    }
+
+    public String getSelectByColumnIn(final String column, final int size) {
+        return selectByColumnIn.computeIfAbsent(column, key -> new ConcurrentHashMap<>()).computeIfAbsent(size, key ->
+                getSelectAll() + " where " + getSelects().reference(column) + " in (" + placeholders(key) + ")");
+    }
+
+    public String getDeleteByIds(final int size) {
+        return deleteByIds.computeIfAbsent(size, key -> "delete from " + table + " where id in (" + placeholders(key) + ")");
+    }
+
+    static String placeholders(final int size) {
+        final StringJoiner placeholders = new StringJoiner(",");
+
+        for (int i = 0; i < size; i++) {
+            placeholders.add("?");
+        }
+
+        return placeholders.toString();
+    }
+
+    static int getChunkSize(final int size, final int maxSize) {
+        if (size <= 1) {
+            return size;
+        }
+
+        return Math.min(maxSize, Integer.highestOneBit(size - 1) << 1);
+    }
+
+    public String getSelectByColumn(final String column) {
+        return getSelects().selectByColumn.get(column);
+    }
+
+    public String getSelectAllByColumn(final String column) {
+        return getSelects().selectAllByColumn.get(column);
+    }
+
+    public String getSelectPage(final boolean after) {
+        return after ? getSelects().selectPageAfter : getSelects().selectPage;
+    }
+
+    public String getSelectPageByColumn(final String column, final boolean after) {
+        return after ? getSelects().selectPageByColumnAfter.get(column) : getSelects().selectPageByColumn.get(column);
+    }
+
+    private static final class Selects {
+        private final JoinNode joinPlan;
+        private final String selectAll;
+        private final String select;
+        private final Map<String, String> selectByColumn;
+        private final Map<String, String> selectAllByColumn;
+        private final String selectPage;
+        private final String selectPageAfter;
+        private final Map<String, String> selectPageByColumn;
+        private final Map<String, String> selectPageByColumnAfter;
+        private final String selectRange;
+        private final String selectRangeOrdered;
+
+        private Selects(final EntityMetadata<?> metadata) {
+            if (metadata.relationColumns.stream().anyMatch(Column::isJoinFetch)) {
+                final StringJoiner columns = new StringJoiner(", ");
+                final StringBuilder joins = new StringBuilder();
+
+                this.joinPlan = JoinNode.build(metadata, columns, joins);
+                this.selectAll = "select " + columns + " from " + metadata.table + " " + joinPlan.getAlias() + joins;
+            } else {
+                this.joinPlan = null;
+                this.selectAll = "select * from " + metadata.table;
+            }
+
+            this.select = selectAll + " where " + reference("id") + " = ? limit 1";
+
+            final String pageOrder = " order by " + reference("id") + " limit ?";
+            this.selectPage = selectAll + pageOrder;
+            this.selectPageAfter = selectAll + " where " + reference("id") + " > ?" + pageOrder;
+            this.selectRange = selectAll + " where " + reference("id") + " >= ? and " + reference("id") + " < ?";
+            this.selectRangeOrdered = selectRange + " order by " + reference("id");
+
+            final Map<String, String> selectByColumn = new HashMap<>();
+            final Map<String, String> selectAllByColumn = new HashMap<>();
+            final Map<String, String> selectPageByColumn = new HashMap<>();
+            final Map<String, String> selectPageByColumnAfter = new HashMap<>();
+
+            for (final String column : metadata.columns.keySet()) {
+                selectByColumn.put(column, selectAll + " where " + reference(column) + " = ? limit 1");
+                selectAllByColumn.put(column, selectAll + " where " + reference(column) + " = ?");
+                selectPageByColumn.put(column, selectAll + " where " + reference(column) + " = ?" + pageOrder);
+                selectPageByColumnAfter.put(column, selectAll + " where " + reference(column) + " = ? and "
+                        + reference("id") + " > ?" + pageOrder);
+            }
+
+            this.selectByColumn = Collections.unmodifiableMap(selectByColumn);
+            this.selectAllByColumn = Collections.unmodifiableMap(selectAllByColumn);
+            this.selectPageByColumn = Collections.unmodifiableMap(selectPageByColumn);
+            this.selectPageByColumnAfter = Collections.unmodifiableMap(selectPageByColumnAfter);
+        }
+
+        private String reference(final String column) {
+            return isNull(joinPlan) ? column : joinPlan.getAlias() + "." + column;
+        }
+    }
+}
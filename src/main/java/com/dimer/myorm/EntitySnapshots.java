@@ -0,0 +1,104 @@
+package com.dimer.myorm;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.Objects.isNull;
+
+final class EntitySnapshots {
+    private final Map<EntityKey, Snapshot> snapshots = new HashMap<>();
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    public void put(final Class<?> type, final Object entity, final Object id, final Object[] values) {
+        expunge();
+        snapshots.put(new EntityKey(entity, queue), new Snapshot(type, id, values));
+    }
+
+    public Snapshot get(final Object entity, final Object id) {
+        expunge();
+
+        final Snapshot snapshot = snapshots.get(new EntityKey(entity, null));
+
+        return isNull(snapshot) || !Objects.equals(snapshot.getId(), id) ? null : snapshot;
+    }
+
+    public void remove(final Object entity) {
+        snapshots.remove(new EntityKey(entity, null));
+    }
+
+    public void removeAll(final Class<?> type, final Collection<?> ids) {
+        final Set<Object> removedIds = new HashSet<>(ids);
+        snapshots.values().removeIf(snapshot -> snapshot.type == type && removedIds.contains(snapshot.id));
+    }
+
+    public void removeAll(final Class<?> type) {
+        snapshots.values().removeIf(snapshot -> snapshot.type == type);
+    }
+
+    public void clear() {
+        snapshots.clear();
+    }
+
+    private void expunge() {
+        Reference<?> reference;
+
+        while ((reference = queue.poll()) != null) {
+            snapshots.remove(reference);
+        }
+    }
+
+    static final class Snapshot {
+        private final Class<?> type;
+        private final Object id;
+        private final Object[] values;
+
+        private Snapshot(final Class<?> type, final Object id, final Object[] values) {
+            this.type = type;
+            this.id = id;
+            this.values = values;
+        }
+
+        public Object getId() {
+            return id;
+        }
+
+        public Object[] getValues() {
+            return values;
+        }
+    }
+
+    private static final class EntityKey extends WeakReference<Object> {
+        private final int hash;
+
+        private EntityKey(final Object entity, final ReferenceQueue<Object> queue) {
+            super(entity, queue);
+            this.hash = System.identityHashCode(entity);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            if (!(other instanceof EntityKey)) {
+                return false;
+            }
+
+            final Object entity = get();
+            return entity != null && entity == ((EntityKey) other).get();
+        }
+    }
+}
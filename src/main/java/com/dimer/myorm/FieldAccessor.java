@@ -0,0 +1,155 @@
+package com.dimer.myorm;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+final class FieldAccessor {
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+    private final MethodHandle primitiveGetter;
+    private final MethodHandle primitiveSetter;
+
+    FieldAccessor(final Field field) {
+        this.field = field;
+
+        try {
+            field.setAccessible(true);
+
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            final MethodHandle rawGetter = lookup.unreflectGetter(field);
+            final MethodHandle rawSetter = lookup.unreflectSetter(field);
+            final Class<?> type = field.getType();
+
+            this.getter = rawGetter.asType(MethodType.methodType(Object.class, Object.class));
+            this.setter = rawSetter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+
+            if (type.isPrimitive()) {
+                this.primitiveGetter = rawGetter.asType(MethodType.methodType(type, Object.class));
+                this.primitiveSetter = rawSetter.asType(MethodType.methodType(void.class, Object.class, type));
+            } else {
+                this.primitiveGetter = null;
+                this.primitiveSetter = null;
+            }
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Error while create accessor of field " + field.getName(), e);
+        }
+    }
+
+    public Class<?> getType() {
+        return field.getType();
+    }
+
+    public boolean isPrimitive() {
+        return field.getType().isPrimitive();
+    }
+
+    public Object get(final Object entity) {
+        try {
+            return (Object) getter.invokeExact(entity);
+        } catch (Throwable e) {
+            throw error(e);
+        }
+    }
+
+    public void set(final Object entity, final Object value) {
+        if (value == null && isPrimitive()) {
+            return;
+        }
+
+        try {
+            setter.invokeExact(entity, value);
+        } catch (Throwable e) {
+            throw error(e);
+        }
+    }
+
+    public int getInt(final Object entity) {
+        try {
+            return (int) primitiveGetter.invokeExact(entity);
+        } catch (Throwable e) {
+            throw error(e);
+        }
+    }
+
+    public void setInt(final Object entity, final int value) {
+        try {
+            primitiveSetter.invokeExact(entity, value);
+        } catch (Throwable e) {
+            throw error(e);
+        }
+    }
+
+    public long getLong(final Object entity) {
+        try {
+            return (long) primitiveGetter.invokeExact(entity);
+        } catch (Throwable e) {
+            throw error(e);
+        }
+    }
+
+    public void setLong(final Object entity, final long value) {
+        try {
+            primitiveSetter.invokeExact(entity, value);
+        } catch (Throwable e) {
+            throw error(e);
+        }
+    }
+
+    public float getFloat(final Object entity) {
+        try {
+            return (float) primitiveGetter.invokeExact(entity);
+        } catch (Throwable e) {
+            throw error(e);
+        }
+    }
+
+    public void setFloat(final Object entity, final float value) {
+        try {
+            primitiveSetter.invokeExact(entity, value);
+        } catch (Throwable e) {
+            throw error(e);
+        }
+    }
+
+    public double getDouble(final Object entity) {
+        try {
+            return (double) primitiveGetter.invokeExact(entity);
+        } catch (Throwable e) {
+            throw error(e);
+        }
+    }
+
+    public void setDouble(final Object entity, final double value) {
+        try {
+            primitiveSetter.invokeExact(entity, value);
+        } catch (Throwable e) {
+            throw error(e);
+        }
+    }
+
+    public boolean getBoolean(final Object entity) {
+        try {
+            return (boolean) primitiveGetter.invokeExact(entity);
+        } catch (Throwable e) {
+            throw error(e);
+        }
+    }
+
+    public void setBoolean(final Object entity, final boolean value) {
+        try {
+            primitiveSetter.invokeExact(entity, value);
+        } catch (Throwable e) {
+            throw error(e);
+        }
+    }
+
+    private RuntimeException error(final Throwable e) {
+        if (e instanceof RuntimeException) {
+            return (RuntimeException) e;
+        }
+        return new RuntimeException("Error on access field " + field.getName(), e);
+    }
+}
@@ -0,0 +1,102 @@
+package com.dimer.myorm;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static java.util.Objects.isNull;
+
+final class IdentityMap {
+    private final Map<EntityKey, EntityReference> entities = new HashMap<>();
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(final Class<?> type, final Object id) {
+        if (isNull(id)) {
+            return null;
+        }
+
+        expunge();
+
+        final EntityReference reference = entities.get(new EntityKey(type, id));
+
+        return isNull(reference) ? null : (T) reference.get();
+    }
+
+    public void put(final Class<?> type, final Object id, final Object entity) {
+        if (isNull(id)) {
+            return;
+        }
+
+        expunge();
+
+        final EntityKey key = new EntityKey(type, id);
+        entities.put(key, new EntityReference(key, entity, queue));
+    }
+
+    public void remove(final Class<?> type, final Object id) {
+        if (isNull(id)) {
+            return;
+        }
+
+        entities.remove(new EntityKey(type, id));
+    }
+
+    public void removeAll(final Class<?> type) {
+        entities.keySet().removeIf(key -> key.type == type);
+    }
+
+    public void clear() {
+        entities.clear();
+    }
+
+    private void expunge() {
+        Reference<?> reference;
+
+        while ((reference = queue.poll()) != null) {
+            final EntityKey key = ((EntityReference) reference).key;
+            entities.remove(key, reference);
+        }
+    }
+
+    private static final class EntityReference extends WeakReference<Object> {
+        private final EntityKey key;
+
+        private EntityReference(final EntityKey key, final Object entity, final ReferenceQueue<Object> queue) {
+            super(entity, queue);
+            this.key = key;
+        }
+    }
+
+    private static final class EntityKey {
+        private final Class<?> type;
+        private final Object id;
+
+        private EntityKey(final Class<?> type, final Object id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + id.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            if (!(other instanceof EntityKey)) {
+                return false;
+            }
+
+            final EntityKey key = (EntityKey) other;
+            return type == key.type && Objects.equals(id, key.id);
+        }
+    }
+}
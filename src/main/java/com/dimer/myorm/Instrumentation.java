@@ -0,0 +1,68 @@
+package com.dimer.myorm;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+
+import static java.util.Objects.nonNull;
+
+public final class Instrumentation {
+    private static volatile SqlListener listener;
+
+    private Instrumentation() {
+    }
+
+    public static SqlListener getListener() {
+        return listener;
+    }
+
+    public static void setListeners(final SqlListener... listeners) {
+        if (listeners.length == 0) {
+            listener = null;
+        } else if (listeners.length == 1) {
+            listener = listeners[0];
+        } else {
+            listener = new CompositeListener(List.of(listeners));
+        }
+    }
+
+    public static void disable() {
+        listener = null;
+    }
+
+    static void relationLoaded(final Column column, final int keys) {
+        final SqlListener current = listener;
+
+        if (nonNull(current)) {
+            current.onRelationLoad(column.get().getDeclaringClass(), column.get().getName(), keys);
+        }
+    }
+
+    private static final class CompositeListener implements SqlListener {
+        private final List<SqlListener> listeners;
+
+        private CompositeListener(final List<SqlListener> listeners) {
+            this.listeners = listeners;
+        }
+
+        @Override
+        public void onStatement(final String sql, final PreparedStatement statement, final long elapsedNanos) {
+            for (final SqlListener listener : listeners) {
+                listener.onStatement(sql, statement, elapsedNanos);
+            }
+        }
+
+        @Override
+        public void onRowsMapped(final Class<?> type, final String sql, final int rows) {
+            for (final SqlListener listener : listeners) {
+                listener.onRowsMapped(type, sql, rows);
+            }
+        }
+
+        @Override
+        public void onRelationLoad(final Class<?> ownerType, final String relation, final int keys) {
+            for (final SqlListener listener : listeners) {
+                listener.onRelationLoad(ownerType, relation, keys);
+            }
+        }
+    }
+}
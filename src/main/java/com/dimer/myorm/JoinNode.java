@@ -0,0 +1,89 @@
+package com.dimer.myorm;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import static java.util.Objects.isNull;
+
+final class JoinNode {
+    static final int MAX_DEPTH = 3;
+
+    private final EntityMetadata<?> metadata;
+    private final String alias;
+    private final Map<Column, JoinNode> children = new IdentityHashMap<>();
+
+    private volatile RowMapper<?> rowMapper;
+
+    private JoinNode(final EntityMetadata<?> metadata, final String alias) {
+        this.metadata = metadata;
+        this.alias = alias;
+    }
+
+    static JoinNode build(final EntityMetadata<?> metadata, final StringJoiner columns, final StringBuilder joins) {
+        final JoinNode root = new JoinNode(metadata, "t0");
+        root.addColumns(columns);
+        root.addJoins(columns, joins, new int[]{ 1 }, 1);
+        return root;
+    }
+
+    private void addColumns(final StringJoiner columns) {
+        if (!isNull(metadata.getId())) {
+            addColumn(columns, metadata.getId().getName());
+        }
+
+        for (final Column column : metadata.getPersistentColumns()) {
+            addColumn(columns, column.getName());
+        }
+    }
+
+    private void addColumn(final StringJoiner columns, final String column) {
+        columns.add(alias + "." + column + " as " + alias + "_" + column);
+    }
+
+    private void addJoins(final StringJoiner columns, final StringBuilder joins, final int[] counter, final int depth) {
+        if (depth > MAX_DEPTH) {
+            return;
+        }
+
+        for (final Column column : metadata.getRelationColumns()) {
+            if (!column.isJoinFetch()) {
+                continue;
+            }
+
+            final EntityMetadata<?> related = EntityMetadata.of(column.getRelatedType());
+            final JoinNode child = new JoinNode(related, "t" + counter[0]++);
+
+            joins.append(" left join ").append(related.getTable()).append(' ').append(child.alias)
+                    .append(" on ").append(child.alias).append(".id = ")
+                    .append(alias).append('.').append(column.getName());
+
+            child.addColumns(columns);
+            children.put(column, child);
+            child.addJoins(columns, joins, counter, depth + 1);
+        }
+    }
+
+    public String getAlias() {
+        return alias;
+    }
+
+    public String getPrefix() {
+        return alias + "_";
+    }
+
+    public JoinNode getChild(final Column column) {
+        return children.get(column);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> RowMapper<T> getRowMapper(final ResultSet result) throws SQLException {
+        if (isNull(rowMapper)) {
+            rowMapper = new RowMapper<>((EntityMetadata<T>) metadata, result.getMetaData(), getPrefix());
+        }
+
+        return (RowMapper<T>) rowMapper;
+    }
+}
@@ -0,0 +1,79 @@
+package com.dimer.myorm;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntSupplier;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+final class LazyList<E> extends AbstractList<E> implements RandomAccess {
+    private final Runnable loader;
+    private final IntSupplier counter;
+    private List<E> elements;
+    private int size = -1;
+
+    LazyList(final Runnable loader, final IntSupplier counter) {
+        this.loader = loader;
+        this.counter = counter;
+    }
+
+    public boolean isInitialized() {
+        return nonNull(elements);
+    }
+
+    void initialize(final List<E> elements) {
+        if (isNull(this.elements)) {
+            this.elements = elements;
+        }
+    }
+
+    private List<E> getElements() {
+        if (isNull(elements)) {
+            loader.run();
+
+            if (isNull(elements)) {
+                elements = new ArrayList<>();
+            }
+        }
+
+        return elements;
+    }
+
+    @Override
+    public E get(final int index) {
+        return getElements().get(index);
+    }
+
+    @Override
+    public int size() {
+        if (isNull(elements) && nonNull(counter)) {
+            if (size < 0) {
+                size = counter.getAsInt();
+            }
+
+            return size;
+        }
+
+        return getElements().size();
+    }
+
+    @Override
+    public E set(final int index, final E element) {
+        return getElements().set(index, element);
+    }
+
+    @Override
+    public void add(final int index, final E element) {
+        modCount++;
+        getElements().add(index, element);
+    }
+
+    @Override
+    public E remove(final int index) {
+        modCount++;
+        return getElements().remove(index);
+    }
+}
@@ -0,0 +1,41 @@
+package com.dimer.myorm;
+
+import net.sf.cglib.proxy.MethodInterceptor;
+import net.sf.cglib.proxy.MethodProxy;
+
+import java.lang.reflect.Method;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+final class LazyLoader implements MethodInterceptor {
+    private final Column column;
+    private Runnable loader;
+    private boolean initialized;
+
+    LazyLoader(final Column column) {
+        this.column = column;
+    }
+
+    public void setLoader(final Runnable loader) {
+        this.loader = loader;
+    }
+
+    public boolean isInitialized() {
+        return initialized || isNull(loader);
+    }
+
+    @Override
+    public Object intercept(final Object entity, final Method method, final Object[] args, final MethodProxy proxy)
+            throws Throwable {
+        if (!initialized) {
+            if (nonNull(loader) && isNull(column.getValue(entity))) {
+                loader.run();
+            }
+
+            initialized = true;
+        }
+
+        return proxy.invokeSuper(entity, args);
+    }
+}
@@ -0,0 +1,42 @@
+package com.dimer.myorm;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+public final class Page<T extends Entity<I>, I> {
+    private final List<T> content;
+    private final boolean hasNext;
+    private final Function<I, Page<T, I>> nextPage;
+
+    Page(final List<T> content, final boolean hasNext, final Function<I, Page<T, I>> nextPage) {
+        this.content = Collections.unmodifiableList(content);
+        this.hasNext = hasNext;
+        this.nextPage = nextPage;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    public boolean isEmpty() {
+        return content.isEmpty();
+    }
+
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    public I getLastId() {
+        return content.isEmpty() ? null : content.get(content.size() - 1).getId();
+    }
+
+    public Page<T, I> next() {
+        if (!hasNext) {
+            throw new NoSuchElementException("There is no page after id " + getLastId());
+        }
+
+        return nextPage.apply(getLastId());
+    }
+}
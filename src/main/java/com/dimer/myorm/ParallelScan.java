@@ -0,0 +1,176 @@
+package com.dimer.myorm;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.isNull;
+
+final class ParallelScan<T extends Entity<I>, I> implements Iterator<T>, AutoCloseable {
+    private static final Object END = new Object();
+    private static final long OFFER_TIMEOUT_MILLIS = 50;
+    static final long IDLE_TIMEOUT_MILLIS = 60_000;
+
+    private final Repository<T, I> repository;
+    private final boolean ordered;
+    private final int partitions;
+    private final List<long[]> ranges;
+    private final List<BlockingQueue<Object>> queues;
+    private final AtomicInteger nextRange = new AtomicInteger();
+    private final long idleTimeoutNanos;
+
+    private volatile boolean closed;
+    private volatile boolean abandoned;
+    private volatile boolean consuming;
+    private volatile long lastConsumedAt = System.nanoTime();
+    private int finished;
+    private Object next;
+
+    ParallelScan(final Repository<T, I> repository, final List<long[]> ranges, final boolean ordered,
+                 final int capacity, final int workers, final Executor executor, final long idleTimeoutMillis) {
+        this.repository = repository;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.ordered = ordered;
+        this.partitions = ranges.size();
+        this.ranges = ranges;
+        this.queues = new ArrayList<>(ordered ? partitions : 1);
+
+        if (ordered) {
+            for (int i = 0; i < partitions; i++) {
+                queues.add(new ArrayBlockingQueue<>(capacity));
+            }
+        } else {
+            queues.add(new ArrayBlockingQueue<>(capacity * Math.max(1, partitions)));
+        }
+
+        for (int i = 0; i < Math.min(workers, partitions); i++) {
+            executor.execute(this::scan);
+        }
+    }
+
+    private void scan() {
+        for (int index = nextRange.getAndIncrement(); index < partitions && !closed;
+             index = nextRange.getAndIncrement()) {
+            final BlockingQueue<Object> queue = queues.get(ordered ? index : 0);
+
+            try {
+                repository.scanRange(ranges.get(index), ordered, entity -> offer(queue, entity));
+                offer(queue, END);
+            } catch (RuntimeException | Error e) {
+                offer(queue, new Failure(e));
+                return;
+            }
+        }
+    }
+
+    private boolean offer(final BlockingQueue<Object> queue, final Object item) {
+        try {
+            while (!closed) {
+                if (queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+
+                if (!consuming && System.nanoTime() - lastConsumedAt > idleTimeoutNanos) {
+                    abandoned = true;
+                    close();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (isNull(next)) {
+            if (abandoned) {
+                throw new RuntimeException("Parallel scan of " + repository.getMetadata().getTable()
+                        + " was closed after the stream was left idle");
+            }
+
+            if (closed || finished == partitions) {
+                close();
+                return false;
+            }
+
+            final Object item;
+
+            consuming = true;
+
+            try {
+                item = queues.get(ordered ? finished : 0).take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new RuntimeException("Interrupted on parallel scan of " + repository.getMetadata().getTable(), e);
+            } finally {
+                lastConsumedAt = System.nanoTime();
+                consuming = false;
+            }
+
+            if (item == END) {
+                finished++;
+            } else if (item instanceof Failure) {
+                close();
+                throw new RuntimeException("Error on parallel scan of " + repository.getMetadata().getTable(),
+                        ((Failure) item).cause);
+            } else {
+                next = item;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        final T entity = (T) next;
+        next = null;
+        return entity;
+    }
+
+    Stream<T> stream() {
+        final int characteristics = ordered ? Spliterator.ORDERED | Spliterator.NONNULL : Spliterator.NONNULL;
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, characteristics), false)
+                .onClose(this::close);
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        for (final BlockingQueue<Object> queue : queues) {
+            queue.clear();
+        }
+    }
+
+    private static final class Failure {
+        private final Throwable cause;
+
+        private Failure(final Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
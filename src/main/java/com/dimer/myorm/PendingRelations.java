@@ -0,0 +1,63 @@
+package com.dimer.myorm;
+
+import java.util.*;
+
+import static java.util.Objects.isNull;
+
+final class PendingRelations {
+    private final Map<Column, Map<Object, List<Object>>> singleRelations = new LinkedHashMap<>();
+    private final Map<Column, CollectionBatch> collections = new LinkedHashMap<>();
+    private final long readStamp;
+
+    PendingRelations(final long readStamp) {
+        this.readStamp = readStamp;
+    }
+
+    long getReadStamp() {
+        return readStamp;
+    }
+
+    public void addSingleRelation(final Column column, final Object id, final Object entity) {
+        if (isNull(id)) {
+            return;
+        }
+
+        singleRelations.computeIfAbsent(column, key -> new LinkedHashMap<>())
+                .computeIfAbsent(id, key -> new ArrayList<>())
+                .add(entity);
+    }
+
+    public CollectionBatch getCollectionBatch(final Session session, final Column column, final Class<?> ownerKeyType) {
+        return collections.computeIfAbsent(column, key -> new CollectionBatch(session, column, ownerKeyType));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void load(final Session session) {
+        for (final Map.Entry<Column, Map<Object, List<Object>>> relation : singleRelations.entrySet()) {
+            final Column column = relation.getKey();
+            final Map<Object, List<Object>> entitiesById = relation.getValue();
+
+            Instrumentation.relationLoaded(column, entitiesById.size());
+            final Repository<Entity<Object>, Object> repository = session.getRepository(
+                    (Class<Entity<Object>>) column.getRelatedType());
+
+            for (final Entity<Object> relatedEntity : repository.findAllById(entitiesById.keySet())) {
+                final List<Object> entities = entitiesById.get(relatedEntity.getId());
+
+                if (isNull(entities)) {
+                    continue;
+                }
+
+                for (final Object entity : entities) {
+                    column.setValue(entity, relatedEntity);
+                }
+            }
+        }
+
+        for (final Map.Entry<Column, CollectionBatch> collection : collections.entrySet()) {
+            if (!collection.getKey().isLazyLoading()) {
+                collection.getValue().load();
+            }
+        }
+    }
+}
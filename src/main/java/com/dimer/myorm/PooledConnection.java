@@ -0,0 +1,45 @@
+package com.dimer.myorm;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+final class PooledConnection {
+    private final Connection connection;
+    private final StatementCache statements;
+
+    private long lastUsed = System.currentTimeMillis();
+
+    PooledConnection(final Connection connection, final int statementCacheSize, final StatementCacheStats stats) {
+        this.connection = connection;
+        this.statements = new StatementCache(connection, statementCacheSize, stats);
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    public void touch() {
+        lastUsed = System.currentTimeMillis();
+    }
+
+    public PreparedStatement prepareStatement(final String sql, final boolean returnGeneratedKeys) throws SQLException {
+        return statements.get(sql, returnGeneratedKeys);
+    }
+
+    public void closeStatements() throws SQLException {
+        statements.close();
+    }
+
+    public void close() throws SQLException {
+        try {
+            closeStatements();
+        } finally {
+            connection.close();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.dimer.myorm;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.Objects.isNull;
+
+public final class QueryCache {
+    private final AtomicLong version = new AtomicLong();
+    private final LinkedHashMap<QueryKey, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    QueryCache(final int maxSize) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<QueryKey, Entry> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    long getVersion() {
+        return version.get();
+    }
+
+    List<Object> get(final String column, final Object value, final boolean single) {
+        final QueryKey key = new QueryKey(column, value, single);
+        final Entry entry;
+
+        synchronized (entries) {
+            entry = entries.get(key);
+
+            if (!isNull(entry) && entry.version != version.get()) {
+                entries.remove(key);
+                misses.increment();
+                return null;
+            }
+        }
+
+        if (isNull(entry)) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return entry.ids;
+    }
+
+    void put(final String column, final Object value, final boolean single, final long readVersion,
+             final List<Object> ids) {
+        if (readVersion != version.get()) {
+            return;
+        }
+
+        synchronized (entries) {
+            entries.put(new QueryKey(column, value, single), new Entry(readVersion, List.copyOf(ids)));
+        }
+    }
+
+    public void invalidate() {
+        version.incrementAndGet();
+    }
+
+    public void clear() {
+        invalidate();
+
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRatio() {
+        final long hitCount = getHits();
+        final long total = hitCount + getMisses();
+
+        return total == 0 ? 0 : hitCount / (double) total;
+    }
+
+    private static final class Entry {
+        private final long version;
+        private final List<Object> ids;
+
+        private Entry(final long version, final List<Object> ids) {
+            this.version = version;
+            this.ids = ids;
+        }
+    }
+
+    private static final class QueryKey {
+        private final String column;
+        private final Object value;
+        private final boolean single;
+
+        private QueryKey(final String column, final Object value, final boolean single) {
+            this.column = column;
+            this.value = value;
+            this.single = single;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(column, value, single);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+
+            if (!(other instanceof QueryKey)) {
+                return false;
+            }
+
+            final QueryKey key = (QueryKey) other;
+            return single == key.single && column.equals(key.column) && Objects.equals(value, key.value);
+        }
+    }
+}
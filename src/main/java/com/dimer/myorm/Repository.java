@@ -1,56 +1,44 @@
 package com.dimer.myorm;
 
-import com.dimer.myorm.annotations.*;
-import net.sf.cglib.proxy.Enhancer;
-import net.sf.cglib.proxy.MethodInterceptor;
-import net.sf.cglib.proxy.MethodProxy;
-
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.lang.reflect.ParameterizedType;
-import java.lang.reflect.Type;
 import java.sql.Date;
 import java.sql.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.function.BiConsumer;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 public class Repository<T extends Entity<I>, I> implements RepositoryOperation<T, I> {
 
-    private static final boolean LOG_SQL = true;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    private static final int DEFAULT_FETCH_SIZE = 500;
 
-    private final Connection connection;
+    private final Session session;
 
     private final Class<T> type;
-    private final Map<String, Column> fields = new HashMap<>();
-    private Field id;
-    private String idName;
-    private final int fieldsNumber;
-
-    private final String table;
-    private final String select;
-    private final String selectAll;
-    private final String insert;
-    private final String update;
-    private final String delete;
-    private final String exists;
-
-    private PreparedStatement psSelect;
-    private PreparedStatement psSelectAll;
-    private PreparedStatement psInsert;
-    private PreparedStatement psUpdate;
-    private PreparedStatement psDelete;
-    private PreparedStatement psExists;
-
-    private final Map<String, BiConsumer<T, Method>> proxyConsumers = new HashMap<>();
+    private final EntityMetadata<T> metadata;
 
+    private volatile int batchSize = DEFAULT_BATCH_SIZE;
+    private volatile int fetchSize = DEFAULT_FETCH_SIZE;
+    private volatile SaveStrategy saveStrategy = SaveStrategy.EXISTS_CHECK;
+    private volatile boolean transactionalWrites = true;
+
+    private static final Map<Class<?>, Repository<?, ?>> DEFAULT_REPOSITORIES = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
     public static <E extends Entity<I>, I> Repository<E, I> of(final Class<E> type) {
-        return new Repository<>(type);
+        return (Repository<E, I>) DEFAULT_REPOSITORIES.computeIfAbsent(type, key -> new Repository<>(type));
     }
 
     public static String camelToSnake(String str) {
@@ -61,460 +49,596 @@ public class Repository<T extends Entity<I>, I> implements RepositoryOperation<T
     }
 
     public Repository(Class<T> type) {
-        this(type, ConnectionFactory.getConnection());
+        this(type, (Session) null);
     }
 
     public Repository(final Class<T> type, final Connection connection) {
-        this.connection = connection;
+        this(type, new Session(connection));
+    }
+
+    Repository(final Class<T> type, final Session session) {
+        this.session = session;
         this.type = type;
-        this.table = getTableName();
-        this.fieldsNumber = mapFields(type.getDeclaredFields());
+        this.metadata = EntityMetadata.of(type);
+    }
 
-        this.selectAll = "select * from " + table;
-        this.select = "select * from " + table + " where id = ? limit 1";
-        this.insert = this.generateInsertStatement();
-        this.update = this.generateUpdateStatement();
-        this.delete = "delete from " + table + " where id = ?";
-        this.exists = "select exists (select id from " + table + " where id = ?)";
-        this.prepareStatements();
+    public Session getSession() {
+        return session();
     }
 
-    private ColumnType getColumnType(final Field field) {
-        if (isOneToOne(field)) return ColumnType.ONE_TO_ONE;
-        if (isOneToMany(field)) return ColumnType.ONE_TO_MANY;
-        if (isManyToOne(field)) return  ColumnType.MANY_TO_ONE;
-        return ColumnType.SIMPLE;
+    private Session session() {
+        return nonNull(session) ? session : ConnectionFactory.getSession();
     }
 
-    private int mapFields(final Field[] fields) {
-        int columnNumber = 0;
+    EntityMetadata<T> getMetadata() {
+        return metadata;
+    }
 
-        for (final Field field : fields) {
-            field.setAccessible(true);
+    public EntityCache getEntityCache() {
+        return metadata.getEntityCache();
+    }
 
-            if (field.isAnnotationPresent(Id.class)) {
-                this.id = field;
-                this.idName = getFieldName(field);
-            } else {
-                final String fieldName = getFieldName(field);
-                final ColumnType columnType = getColumnType(field);
+    public QueryCache getQueryCache() {
+        return metadata.getQueryCache();
+    }
 
-                this.fields.put(fieldName, new Column(field, columnType));
+    public int getBatchSize() {
+        return batchSize;
+    }
 
-                if (columnType.isNotOneToMany()) {
-                    columnNumber++;
-                }
-            }
-        }
+    public SaveStrategy getSaveStrategy() {
+        return saveStrategy;
+    }
 
-        return columnNumber;
+    public void setSaveStrategy(final SaveStrategy saveStrategy) {
+        this.saveStrategy = Objects.requireNonNull(saveStrategy);
     }
 
-    private void prepareStatements() {
-        try {
-            final String[] generatedValues = new String[]{ "id" };
-            this.psSelectAll = connection.prepareStatement(selectAll);
-            this.psSelect = connection.prepareStatement(select);
-            this.psInsert = connection.prepareStatement(insert, generatedValues);
-            this.psUpdate = connection.prepareStatement(update);
-            this.psDelete = connection.prepareStatement(delete);
-            this.psExists = connection.prepareStatement(exists);
-        } catch (SQLException e) {
-            throw new RuntimeException("Error while generate sql statements", e);
+    public void setBatchSize(final int batchSize) {
+        if (batchSize < 1) {
+            throw new RuntimeException("Batch size must be greater than zero.");
         }
+
+        this.batchSize = batchSize;
     }
 
-    private String generateInsertStatement() {
-        final List<String> fieldList = new LinkedList<>();
-        final List<String> valueList = new LinkedList<>();
+    public boolean isTransactionalWrites() {
+        return transactionalWrites;
+    }
 
-        for (final Map.Entry<String, Column> columnEntry : fields.entrySet()) {
-            if (!columnEntry.getValue().isOneToMany()) {
-                fieldList.add(columnEntry.getKey());
-                valueList.add("?");
-            }
+    public void setTransactionalWrites(final boolean transactionalWrites) {
+        this.transactionalWrites = transactionalWrites;
+    }
+
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    public void setFetchSize(final int fetchSize) {
+        if (fetchSize < 1) {
+            throw new RuntimeException("Fetch size must be greater than zero.");
         }
 
-        final String fields = String.join(",", fieldList);
-        final String values = String.join(",", valueList);
+        this.fetchSize = fetchSize;
+    }
+
+    private <E extends Entity<Object>> Repository<E, Object> getRelatedRepository(final Column column) {
+        return session().getRepository((Class<E>) column.getRelatedType());
+    }
+
+    public ResultSet executeQuery(final PreparedStatement statement) throws SQLException {
+        return executeQuery(null, statement);
+    }
 
-        return String.format("insert into %s (%s) values (%s)", table, fields, values);
+    public int executeUpdate(final PreparedStatement statement) throws SQLException {
+        return executeUpdate(null, statement);
     }
 
-    private String generateUpdateStatement() {
-        final StringBuilder update = new StringBuilder();
-        final List<String> statements = new LinkedList<>();
+    public int[] executeBatch(final PreparedStatement statement) throws SQLException {
+        return executeBatch(null, statement);
+    }
 
-        update.append("update ").append(table).append(" set ");
+    private ResultSet executeQuery(final String sql, final PreparedStatement statement) throws SQLException {
+        final SqlListener listener = Instrumentation.getListener();
 
-        for (final Map.Entry<String, Column> columnEntry : fields.entrySet()) {
-            if (!columnEntry.getValue().isOneToMany()) {
-                statements.add(columnEntry.getKey() + " = ?");
-            }
+        if (isNull(listener)) {
+            return statement.executeQuery();
         }
 
-        update.append(String.join(",", statements));
+        final long start = System.nanoTime();
 
-        return update.append(" where id = ?").toString();
+        try {
+            return statement.executeQuery();
+        } finally {
+            listener.onStatement(sqlOf(sql, statement), statement, System.nanoTime() - start);
+        }
     }
 
-    private String getTableName() {
-        final String tableName = camelToSnake(type.getSimpleName());
+    private int executeUpdate(final String sql, final PreparedStatement statement) throws SQLException {
+        final SqlListener listener = Instrumentation.getListener();
 
-        if (type.isAnnotationPresent(Schema.class)) {
-            final String schema = type.getAnnotation(Schema.class).value();
-            return schema + "." + tableName;
+        if (isNull(listener)) {
+            return statement.executeUpdate();
         }
 
-        return tableName;
+        final long start = System.nanoTime();
+
+        try {
+            return statement.executeUpdate();
+        } finally {
+            listener.onStatement(sqlOf(sql, statement), statement, System.nanoTime() - start);
+        }
     }
 
-    private String getFieldName(Field field) {
-        if (isOneToOne(field)) {
-            return field.getAnnotation(OneToOne.class).column();
-        } else if (isManyToOne(field)) {
-            return field.getAnnotation(ManyToOne.class).column();
-        } else if (isOneToMany(field)) {
-            return field.getAnnotation(OneToMany.class).column();
+    private int[] executeBatch(final String sql, final PreparedStatement statement) throws SQLException {
+        final SqlListener listener = Instrumentation.getListener();
+
+        if (isNull(listener)) {
+            return statement.executeBatch();
         }
 
-        return camelToSnake(field.getName());
+        final long start = System.nanoTime();
+
+        try {
+            return statement.executeBatch();
+        } finally {
+            listener.onStatement(sqlOf(sql, statement), statement, System.nanoTime() - start);
+        }
     }
 
-    private T getProxyInstance() {
-        final Enhancer enhancer = new Enhancer();
-        enhancer.setClassLoader(type.getClassLoader());
-        enhancer.setSuperclass(type);
-        enhancer.setCallback((MethodInterceptor) this::executeProxyConsumers);
-        return (T) enhancer.create();
+    private static String sqlOf(final String sql, final PreparedStatement statement) {
+        return nonNull(sql) ? sql : statement.toString();
     }
 
-    private Object executeProxyConsumers(final Object entity, final Method method, final Object[] args, MethodProxy proxy) {
-        try {
-            final String methodName = method.getName();
+    @FunctionalInterface
+    private interface RowCallback<T> {
+        void accept(T entity, RowMapper<T> rowMapper, ResultSet result) throws SQLException;
+    }
 
-            final BiConsumer<T, Method> consumer = proxyConsumers.get(methodName);
+    private List<T> mapResults(final String sql, final ResultSet result, final long readStamp) throws SQLException {
+        return mapResults(sql, result, readStamp, null);
+    }
 
-            if (nonNull(consumer)) {
-                consumer.accept((T) entity, method);
-            }
+    private List<T> mapResults(final String sql, final ResultSet result, final long readStamp,
+                               final RowCallback<T> callback) throws SQLException {
+        final PendingRelations pendingRelations = new PendingRelations(readStamp);
+        final List<T> resultList;
 
-            return proxy.invokeSuper(entity, args);
-        } catch (Throwable e) {
-            throw new RuntimeException(e);
+        try (result) {
+            resultList = readRows(sql, result, Integer.MAX_VALUE, callback, pendingRelations);
         }
+
+        pendingRelations.load(session());
+
+        return resultList;
     }
 
-    public ResultSet executeQuery(final PreparedStatement statement) throws SQLException {
-        if (LOG_SQL) {
-            System.out.printf("SQL: %s\n", statement);
+    List<T> mapRows(final String sql, final ResultSet result, final int limit, final long readStamp)
+            throws SQLException {
+        final PendingRelations pendingRelations = new PendingRelations(readStamp);
+        final List<T> resultList = readRows(sql, result, limit, null, pendingRelations);
+
+        pendingRelations.load(session());
+
+        return resultList;
+    }
+
+    private List<T> readRows(final String sql, final ResultSet result, final int limit, final RowCallback<T> callback,
+                             final PendingRelations pendingRelations) throws SQLException {
+        final List<T> resultList = new ArrayList<>();
+        final JoinNode joinPlan = metadata.getJoinPlan();
+        RowMapper<T> rowMapper = null;
+
+        while (resultList.size() < limit && result.next()) {
+            if (isNull(rowMapper)) {
+                rowMapper = metadata.getRowMapper(sql, result);
+            }
+
+            final T entity = mapperEntity(joinPlan, rowMapper, result, pendingRelations);
+
+            if (nonNull(callback)) {
+                callback.accept(entity, rowMapper, result);
+            }
+
+            resultList.add(entity);
+        }
+
+        final SqlListener listener = Instrumentation.getListener();
+
+        if (nonNull(listener)) {
+            listener.onRowsMapped(type, sql, resultList.size());
         }
-        return statement.executeQuery();
+
+        return resultList;
     }
 
-    public int executeUpdate(final PreparedStatement statement) throws SQLException {
-        if (LOG_SQL) {
-            System.out.printf("SQL: %s\n", statement);
+    private T mapSingleResult(final String sql, final ResultSet result, final long readStamp) throws SQLException {
+        final List<T> resultList = mapResults(sql, result, readStamp);
+        return resultList.isEmpty() ? null : resultList.get(0);
+    }
+
+    T mapJoinedEntity(JoinNode node, Object id, ResultSet result, PendingRelations pendingRelations)
+            throws SQLException {
+        final RowMapper<T> rowMapper = node.getRowMapper(result);
+
+        if (isNull(rowMapper.readId(result))) {
+            return null;
         }
-        return statement.executeUpdate();
+
+        return mapperEntity(node, rowMapper, result, pendingRelations);
     }
 
-    private T mapperEntity(ResultSet result) {
+    private T mapperEntity(JoinNode node, RowMapper<T> rowMapper, ResultSet result,
+                           PendingRelations pendingRelations) {
         try {
-            final T entity = getProxyInstance();
+            final T managedEntity = session().getIdentityMap().get(type, rowMapper.readId(result));
 
-            mapIdProperty(entity, result);
+            if (nonNull(managedEntity)) {
+                mapMissingCollections(managedEntity, pendingRelations);
+                return managedEntity;
+            }
 
-            for (final Map.Entry<String, Column> fieldEntry : fields.entrySet()) {
-                final Column column = fieldEntry.getValue();
-                final String name = fieldEntry.getKey();
+            final EntityInstantiator<T> instantiator = metadata.getInstantiator();
+            final LazyLoader[] lazyLoaders = instantiator.isProxied() ? instantiator.newLazyLoaders() : null;
+            final T entity = isNull(lazyLoaders) ? instantiator.newInstance() : instantiator.newInstance(lazyLoaders);
 
-                if (column.isRelation()) {
-                    mapRelation(entity, name, column, result);
-                } else {
-                    mapProperty(entity, name, column.get(), result);
+            rowMapper.mapProperties(entity, result);
+
+            final List<Column> relations = metadata.getRelationColumns();
+            final Object[] relationIds = new Object[metadata.getFieldsNumber()];
+
+            for (int i = 0; i < relations.size(); i++) {
+                if (!relations.get(i).isOneToMany()) {
+                    relationIds[metadata.getPersistentIndex(i)] = rowMapper.readRelationId(i, result);
                 }
             }
 
+            mapRelations(node, entity, lazyLoaders, relationIds, result, pendingRelations);
+
+            final Object[] values = getColumnValues(entity, relationIds);
+            takeSnapshot(entity, values);
+
+            if (nonNull(metadata.getEntityCache()) && !session().isTransactionActive()) {
+                metadata.getEntityCache().putIfAbsent(entity.getId(), values, pendingRelations.getReadStamp());
+            }
+
             return entity;
         } catch (Exception e) {
             throw new RuntimeException("Error on map entity", e);
         }
     }
 
-    private void createLazyLoadingProxy(final Column column, final Runnable runnable) {
-        proxyConsumers.put(getGetterName(column.get()), (entity, method) -> {
-            Object result = null;
+    private T mapCachedEntity(Object id, Object[] values, PendingRelations pendingRelations) throws SQLException {
+        final EntityInstantiator<T> instantiator = metadata.getInstantiator();
+        final LazyLoader[] lazyLoaders = instantiator.isProxied() ? instantiator.newLazyLoaders() : null;
+        final T entity = isNull(lazyLoaders) ? instantiator.newInstance() : instantiator.newInstance(lazyLoaders);
+        final List<Column> columns = metadata.getPersistentColumns();
 
-            try {
-                final Field field = type.getDeclaredField(getFieldName(method));
-                field.setAccessible(true);
-                result = field.get(entity);
-            } catch (Exception e) {
-                e.printStackTrace();
-            }
+        metadata.getId().setValue(entity, id);
 
-            if (isNull(result)) {
-                runnable.run();
+        for (int i = 0; i < columns.size(); i++) {
+            if (!columns.get(i).isRelation()) {
+                columns.get(i).setValue(entity, values[i]);
             }
-        });
-    }
+        }
 
-    private String getGetterName(final Field field) {
-        String name = field.getName();
-        name = name.substring(0, 1).toUpperCase() + name.substring(1);
-        return "get" + name;
-    }
+        mapRelations(null, entity, lazyLoaders, values, null, pendingRelations);
+        takeSnapshot(entity, values.clone());
 
-    private String getFieldName(final Method getter) {
-        String name = getter.getName().replace("get", "");
-        return name.substring(0, 1).toLowerCase() + name.substring(1);
+        return entity;
     }
 
-    private void mapRelation(T entity, String name, Column column, ResultSet result) {
-        if (column.isOneToOne() || column.isManyToOne()) {
-            if (column.isLazyLoading()) {
-                createLazyLoadingProxy(column, () -> mapSingleEntityRelation(entity, name, column.get(), result));
-            } else {
-                mapSingleEntityRelation(entity, name, column.get(), result);
+    private void mapRelations(JoinNode node, T entity, LazyLoader[] lazyLoaders, Object[] relationIds,
+                              ResultSet result, PendingRelations pendingRelations) throws SQLException {
+        final List<Column> relations = metadata.getRelationColumns();
+        int lazyIndex = 0;
+
+        for (int i = 0; i < relations.size(); i++) {
+            final Column column = relations.get(i);
+
+            if (column.isOneToMany()) {
+                mapCollection(entity, column, pendingRelations);
+                continue;
             }
-        } else if (column.isOneToMany()) {
+
+            final Object id = relationIds[metadata.getPersistentIndex(i)];
+
             if (column.isLazyLoading()) {
-                createLazyLoadingProxy(column, () -> mapOneToManyRelation(entity, name, column.get(), result));
+                lazyLoaders[lazyIndex++].setLoader(() -> mapSingleEntityRelation(entity, column, id));
+            } else if (nonNull(node) && nonNull(node.getChild(column))) {
+                if (nonNull(id)) {
+                    column.setValue(entity, getRelatedRepository(column)
+                            .mapJoinedEntity(node.getChild(column), id, result, pendingRelations));
+                }
             } else {
-                mapOneToManyRelation(entity, name, column.get(), result);
+                pendingRelations.addSingleRelation(column, id, entity);
             }
         }
     }
 
+    private void mapCollection(T entity, Column column, PendingRelations pendingRelations) {
+        final CollectionBatch batch = pendingRelations.getCollectionBatch(session(), column, metadata.getPrimaryKeyType());
 
-    private Object saveRelation(T entity, Column column, boolean update) {
-        if (column.isOneToOne()) {
-            return saveOneRelation(entity, column.get());
-        } else if (column.isOneToMany()) {
-            saveOneToManyRelation(entity, column.get());
-            return null;
-        } else if (column.isManyToOne()) {
-            return getManyToOneRelationId(entity, column.get());
+        batch.add(entity.getId(), entity);
+
+        if (column.isLazyCollection()) {
+            column.setValue(entity, new LazyList<>(batch::load, column.isCountSize()
+                    ? () -> getRelatedRepository(column).countByColumn(column.getName(), entity.getId())
+                    : null));
         }
+    }
 
-        return null;
+    private void mapMissingCollections(T entity, PendingRelations pendingRelations) {
+        for (final Column column : metadata.getRelationColumns()) {
+            if (column.isOneToMany() && isNull(column.getValue(entity))) {
+                mapCollection(entity, column, pendingRelations);
+            }
+        }
     }
 
-    private Object getManyToOneRelationId(T entity, Field field) {
+    private List<T> findLoaded(Collection<I> ids, List<I> missingIds) {
         try {
-            final Class<? extends Entity<?>> fieldType = (Class<? extends Entity<?>>) field.getType();
-            final Object relatedEntity = field.get(entity);
+            final List<T> loadedEntities = new ArrayList<>();
+            final PendingRelations pendingRelations = new PendingRelations(EntityCache.readStamp());
+            final EntityCache entityCache = metadata.getEntityCache();
 
-            if (nonNull(relatedEntity)) {
-                final Object id = castToEntity(relatedEntity).getId();
+            for (final I id : ids) {
+                final T managedEntity = session().getIdentityMap().get(type, id);
 
-                final Repository<? extends Entity<Object>, Object> repository = new Repository<>(
-                        (Class<Entity<Object>>) fieldType, connection);
+                if (nonNull(managedEntity)) {
+                    mapMissingCollections(managedEntity, pendingRelations);
+                    loadedEntities.add(managedEntity);
+                    continue;
+                }
 
-                final Entity<?> savedEntity;
+                final Object[] cachedValues = isNull(entityCache) ? null : entityCache.get(id);
 
-                if (repository.exists(id)) {
-                    savedEntity = repository.find(id);
+                if (nonNull(cachedValues)) {
+                    loadedEntities.add(mapCachedEntity(id, cachedValues, pendingRelations));
                 } else {
-                    savedEntity = repository.save(castToEntity(relatedEntity));
+                    missingIds.add(id);
                 }
+            }
 
-                field.set(entity, savedEntity);
+            pendingRelations.load(session());
 
-                return nonNull(savedEntity) ? savedEntity.getId() : null;
-            }
+            return loadedEntities;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on map cached entities of " + type.getSimpleName(), e);
+        }
+    }
 
-            return null;
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException("Error on map many to one relation id", e);
+    private Object saveRelation(T entity, Column column, boolean update) {
+        if (column.isOneToOne()) {
+            return saveOneRelation(entity, column);
+        } else if (column.isManyToOne()) {
+            return getManyToOneRelationId(entity, column);
         }
+
+        return null;
+    }
+
+    private boolean isTracked(final Entity<?> entity) {
+        return nonNull(entity.getId()) && nonNull(session().getSnapshots().get(entity, entity.getId()));
+    }
+
+    private void takeSnapshot(final T entity, final Object[] values) {
+        session().getSnapshots().put(type, entity, entity.getId(), values);
+        session().getIdentityMap().put(type, entity.getId(), entity);
     }
 
-    private Object saveOneRelation(T entity, Field field) {
-        final Class<? extends Entity<?>> fieldType = (Class<? extends Entity<?>>) field.getType();
+    private void trackWrite(final T entity, final Object[] values) {
+        takeSnapshot(entity, values);
+        invalidateCache(entity.getId());
+    }
 
-        if (!Entity.class.isAssignableFrom(fieldType)) {
-            throw new RuntimeException("Field annotated with one to one relation is not an Entity.");
+    private <R> R inTransaction(final boolean required, final Supplier<R> work) {
+        if (!required || !transactionalWrites || session().isTransactionActive()) {
+            return work.get();
         }
 
-        try {
-            final Entity<?> relatedEntity = (Entity<?>) field.get(entity);
+        return session().callInTransaction(currentSession -> work.get());
+    }
 
-            if (isNull(relatedEntity)) {
-                return null;
-            }
+    private boolean hasRelations() {
+        return !metadata.getRelationColumns().isEmpty();
+    }
 
-            final Repository<? extends Entity<Object>, Object> repository = new Repository<>((Class<Entity<Object>>) fieldType, connection);
+    private void invalidateCache(final Object id) {
+        if (isNull(metadata.getEntityCache()) && isNull(metadata.getQueryCache())) {
+            return;
+        }
 
-            final Entity<?> savedEntity;
+        if (nonNull(metadata.getEntityCache())) {
+            metadata.getEntityCache().invalidate(id);
+        }
 
-            if (nonNull(relatedEntity.getId())) {
-                savedEntity = repository.find(relatedEntity.getId());
-            } else {
-                savedEntity = repository.save(castToEntity(relatedEntity));
-            }
+        if (nonNull(metadata.getQueryCache())) {
+            metadata.getQueryCache().invalidate();
+        }
 
-            field.set(entity, savedEntity);
+        if (session().isTransactionActive()) {
+            session().afterCompletion(() -> invalidateCache(id));
+        }
+    }
 
-            return nonNull(savedEntity) ? savedEntity.getId() : null;
+    private void clearCaches() {
+        if (isNull(metadata.getEntityCache()) && isNull(metadata.getQueryCache())) {
+            return;
+        }
 
-        } catch (IllegalAccessException e) {
-            e.printStackTrace();
+        if (nonNull(metadata.getEntityCache())) {
+            metadata.getEntityCache().clear();
         }
 
-        return null;
+        if (nonNull(metadata.getQueryCache())) {
+            metadata.getQueryCache().clear();
+        }
+
+        if (session().isTransactionActive()) {
+            session().afterCompletion(this::clearCaches);
+        }
     }
 
-    private void saveOneToManyRelation(T entity, Field field) {
-        final Class<?> fieldType = field.getType();
+    private Object[] getColumnValues(final T entity, final Object[] relationIds) {
+        final List<Column> columns = metadata.getPersistentColumns();
+        final Object[] values = new Object[columns.size()];
 
-        if (!Collection.class.isAssignableFrom(fieldType)) {
-            throw new RuntimeException("Field annotated with one to many relation is not a collection.");
+        for (int i = 0; i < values.length; i++) {
+            final Column column = columns.get(i);
+            values[i] = column.isRelation() ? relationIds[i] : column.getValue(entity);
         }
 
-        try {
-            final Object list = field.get(entity);
+        return values;
+    }
+
+    private Object getManyToOneRelationId(T entity, Column column) {
+        final Object relatedEntity = column.getValue(entity);
+
+        if (nonNull(relatedEntity)) {
+            final Object id = castToEntity(relatedEntity).getId();
 
-            if (isNull(list)) {
-                return;
+            if (isTracked(castToEntity(relatedEntity))) {
+                return id;
             }
 
-            final Repository<? extends Entity<?>, ?> repository = new Repository<>((Class<Entity<Object>>) fieldType, connection);
-            final List<? extends Entity<?>> entities = repository.saveAll(castToEntitiesList(list));
+            final Repository<? extends Entity<Object>, Object> repository = getRelatedRepository(column);
 
-            field.set(entity, entities);
+            Entity<?> savedEntity = isNull(id) ? null : repository.find(id);
 
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException("Error on save one to many relation", e);
+            if (isNull(savedEntity)) {
+                savedEntity = repository.save(castToEntity(relatedEntity));
+            }
+
+            column.setValue(entity, savedEntity);
+
+            return nonNull(savedEntity) ? savedEntity.getId() : null;
         }
-    }
 
-    private <E extends Entity<?>> E castToEntity(Object value) {
-        return (E) value;
+        return null;
     }
 
-    private <E extends Entity<?>> List<E> castToEntitiesList(Object value) {
-        return (List<E>) value;
-    }
+    private Object saveOneRelation(T entity, Column column) {
+        final Entity<?> relatedEntity = (Entity<?>) column.getValue(entity);
 
-    private void mapOneToManyRelation(T entity, String name, Field field, ResultSet result) {
-        final Class<?> fieldType = field.getType();
+        if (isNull(relatedEntity)) {
+            return null;
+        }
 
-        if (!Collection.class.isAssignableFrom(fieldType)) {
-            throw new RuntimeException("Field annotated with one to many relation is not a collection.");
+        if (isTracked(relatedEntity)) {
+            return relatedEntity.getId();
         }
 
-        try {
-            final Repository<? extends Entity<?>, ?> repository = new Repository<>(getListType(field), connection);
-            final List<? extends Entity<?>> entities = repository.findAllByColumn(name, entity.getId());
+        final Repository<? extends Entity<Object>, Object> repository = getRelatedRepository(column);
 
-            field.set(entity, entities);
+        final Entity<?> savedEntity;
 
-        } catch (IllegalAccessException e) {
-            throw new RuntimeException("Error on map one to many relation", e);
+        if (nonNull(relatedEntity.getId())) {
+            savedEntity = repository.find(relatedEntity.getId());
+        } else {
+            savedEntity = repository.save(castToEntity(relatedEntity));
         }
-    }
 
-    private void mapSingleEntityRelation(T entity, String name, Field field, ResultSet result) {
-        final Class<?> fieldType = field.getType();
+        column.setValue(entity, savedEntity);
 
-        if (!Entity.class.isAssignableFrom(fieldType)) {
-            throw new RuntimeException("Field annotated with one to one relation is not an Entity.");
-        }
+        return nonNull(savedEntity) ? savedEntity.getId() : null;
+    }
 
-        try {
-            final Object id = getValueFromResultSet(name, getPrimaryKeyType(fieldType) , result);
-            final Repository<? extends Entity<Object>, Object> repository = new Repository<>(
-                    (Class<Entity<Object>>) fieldType, connection);
+    private void saveCollections(final List<T> entities) {
+        for (final Column column : metadata.getRelationColumns()) {
+            if (!column.isOneToMany()) {
+                continue;
+            }
 
-            final Object object = repository.find(id);
+            final List<Entity<Object>> children = new ArrayList<>();
 
-            field.set(entity, object);
+            for (final T entity : entities) {
+                for (final Entity<?> child : getLoadedCollection(entity, column)) {
+                    if (nonNull(child)) {
+                        linkChild(column, entity, child);
+
+                        if (!session().getUnitOfWork().isInserting(child)) {
+                            children.add(castToEntity(child));
+                        }
+                    }
+                }
+            }
 
-        } catch (SQLException | IllegalAccessException e) {
-            throw new RuntimeException("Error on map one to one relation", e);
+            if (!children.isEmpty()) {
+                getRelatedRepository(column).saveAll(castToEntitiesList(children));
+            }
         }
     }
 
-    private Class<?> getPrimaryKeyType(Class<?> fieldType) {
-        final Type[] genericInterfaces = fieldType.getGenericInterfaces();
-
-        final Optional<ParameterizedType> entityType = Arrays.stream(genericInterfaces)
-                .filter(type -> type instanceof ParameterizedType &&
-                        ((ParameterizedType) type).getRawType().equals(Entity.class))
-                .findFirst()
-                .map(ParameterizedType.class::cast);
+    static List<Entity<?>> getLoadedCollection(final Object entity, final Column column) {
+        final Object list = column.getValue(entity);
 
-        if (entityType.isEmpty()) {
-            throw new RuntimeException("Can't get the type of related entity primary key.");
+        if (isNull(list) || list instanceof LazyList && !((LazyList<?>) list).isInitialized()) {
+            return Collections.emptyList();
         }
-        return (Class<?>) entityType.get().getActualTypeArguments()[0];
+
+        return (List<Entity<?>>) list;
     }
 
-    private Class<? extends Entity<Object>> getListType(Field field) {
-        final Type[] types = ((ParameterizedType) field.getGenericType()).getActualTypeArguments();
+    static void linkChild(final Column column, final Entity<?> parent, final Entity<?> child) {
+        final Column foreignKey = EntityMetadata.of(column.getRelatedType()).getColumns().get(column.getName());
 
-        if (types.length != 1) {
-            throw new RuntimeException("Can't get the type of related entity primary key.");
+        if (isNull(foreignKey)) {
+            return;
         }
 
-        return (Class<? extends Entity<Object>>) types[0];
+        if (!foreignKey.isRelation()) {
+            foreignKey.setValue(child, parent.getId());
+        } else if (isNull(foreignKey.getValue(child))) {
+            foreignKey.setValue(child, parent);
+        }
     }
 
-    private boolean isOneToOne(Field field) {
-        return field.isAnnotationPresent(OneToOne.class);
+    private <E extends Entity<?>> E castToEntity(Object value) {
+        return (E) value;
     }
 
-    private boolean isOneToMany(Field field) {
-        return field.isAnnotationPresent(OneToMany.class);
+    private <E extends Entity<?>> List<E> castToEntitiesList(Object value) {
+        return (List<E>) value;
     }
 
-    private boolean isManyToOne(Field field) {
-        return field.isAnnotationPresent(ManyToOne.class);
-    }
+    private void mapSingleEntityRelation(T entity, Column column, Object id) {
+        final Repository<? extends Entity<Object>, Object> repository = getRelatedRepository(column);
 
-    private void mapIdProperty(final T entity, final ResultSet result) throws SQLException, IllegalAccessException {
-        mapProperty(entity, idName, id, result);
-    }
-    private void mapProperty(final T entity, final String name, final Field field, final ResultSet result)
-            throws SQLException, IllegalAccessException {
-        final Class<?> type = field.getType();
-        field.set(entity, getValueFromResultSet(name, type, result));
+        final Object object = isNull(id) ? null : repository.find(id);
+
+        Instrumentation.relationLoaded(column, 1);
+
+        column.setValue(entity, object);
     }
 
-    public static <E extends Enum<?>> E castEnum(Object field) {
-        return (E) field;
+    private void mapGeneratedId(final T entity, final ResultSet generatedKeys) throws SQLException {
+        final Column id = metadata.getId();
+        id.setValue(entity, RowMapper.valueReader(id.getAccessor().getType()).read(generatedKeys, 1));
     }
 
-    private Object getValueFromResultSet(String columnName, Class<?> columnType, ResultSet result) throws SQLException {
-        if (columnType.equals(String.class)) {
-            return result.getString(columnName);
-        } else if (columnType.equals(Integer.class)) {
-            return result.getInt(columnName);
-        } else if (columnType.equals(LocalDate.class)) {
-            final Date date = result.getDate(columnName);
-            return isNull(date) ? null : date.toLocalDate();
-        } else if (columnType.equals(LocalDateTime.class)) {
-            final Timestamp timestamp = result.getTimestamp(columnName);
-            return isNull(timestamp) ? null : timestamp.toLocalDateTime();
-        } else if (columnType.equals(Float.class)) {
-            return result.getFloat(columnName);
-        } else if (columnType.equals(Double.class)) {
-            return result.getDouble(columnName);
-        } else if (columnType.equals(Boolean.class)) {
-            return result.getBoolean(columnName);
-        } else if (columnType.equals(Long.class)) {
-            return result.getLong(columnName);
-        } else if (columnType.isEnum()) {
-            final int ordinal = result.getInt(columnName);
-            return Arrays.stream(columnType.getEnumConstants())
-                    .filter(e -> castEnum(e).ordinal() == ordinal)
-                    .findFirst()
-                    .orElse(null);
+    private void bindProperty(final PreparedStatement ps, final int index, final Column column, final T entity)
+            throws SQLException {
+        final FieldAccessor accessor = column.getAccessor();
+        final Class<?> fieldType = accessor.getType();
+
+        if (fieldType == int.class) {
+            ps.setInt(index, accessor.getInt(entity));
+        } else if (fieldType == long.class) {
+            ps.setLong(index, accessor.getLong(entity));
+        } else if (fieldType == double.class) {
+            ps.setDouble(index, accessor.getDouble(entity));
+        } else if (fieldType == float.class) {
+            ps.setFloat(index, accessor.getFloat(entity));
+        } else if (fieldType == boolean.class) {
+            ps.setBoolean(index, accessor.getBoolean(entity));
+        } else {
+            setValueIntoStatement(ps, index, accessor.get(entity));
         }
+    }
 
-        return null;
+    public static <E extends Enum<?>> E castEnum(Object field) {
+        return (E) field;
     }
 
     public static void setValueIntoStatement(PreparedStatement ps, int columnIndex, Object value) throws SQLException {
@@ -542,270 +666,1071 @@ public class Repository<T extends Entity<I>, I> implements RepositoryOperation<T
     }
 
     private void verifyFieldExistence(final String field) {
-        if (!fields.containsKey(field)) {
+        if (!metadata.hasColumn(field)) {
             throw new RuntimeException("The field " + field + " does not exists.");
         }
     }
 
     @Override
     public List<T> findAll() {
-        try {
-            final List<T> resultList = new ArrayList<>();
-            final ResultSet queryResults = executeQuery(psSelectAll);
+        session().acquire();
 
-            while (queryResults.next()) {
-                T entity = mapperEntity(queryResults);
-                resultList.add(entity);
-            }
+        try {
+            final String selectAll = metadata.getSelectAll();
+            final long readStamp = EntityCache.readStamp();
 
-            return resultList;
+            return mapResults(selectAll, executeQuery(selectAll, session().prepareStatement(selectAll)), readStamp);
         } catch (SQLException e) {
             throw new RuntimeException("Error on find results of " + type.getSimpleName(), e);
+        } finally {
+            session().release();
         }
     }
 
     @Override
-    public T find(I id) {
-        try {
-            psSelect.clearParameters();
-
-            setValueIntoStatement(psSelect, 1, id);
-
-            final ResultSet result = executeQuery(psSelect);
-            return result.next() ? mapperEntity(result) : null;
-        } catch (SQLException e) {
-            throw new RuntimeException("Error on find unique result of " + type.getSimpleName(), e);
+    public Page<T, I> findPage(I afterId, int limit) {
+        if (isNull(afterId)) {
+            return findPage(metadata.getSelectPage(false), limit, id -> findPage(id, limit));
         }
-    }
-    public T create(T entity) {
-        int index = 1;
 
-        try {
-            psInsert.clearParameters();
+        return findPage(metadata.getSelectPage(true), limit, id -> findPage(id, limit), afterId);
+    }
 
-            for (final Map.Entry<String, Column> fieldEntry : fields.entrySet()) {
-                final Column column = fieldEntry.getValue();
-                final Field field = column.get();
+    @Override
+    public Page<T, I> findPageByColumn(String column, Object value, I afterId, int limit) {
+        verifyFieldExistence(column);
 
-                final Object value;
+        final Function<I, Page<T, I>> nextPage = id -> findPageByColumn(column, value, id, limit);
 
-                if (column.isRelation()) {
-                    value = saveRelation(entity, column, false);
+        if (isNull(afterId)) {
+            return findPage(metadata.getSelectPageByColumn(column, false), limit, nextPage, value);
+        }
 
-                    if (column.isOneToMany()) {
-                        continue;
-                    }
-                } else {
-                    value = field.get(entity);
-                }
+        return findPage(metadata.getSelectPageByColumn(column, true), limit, nextPage, value, afterId);
+    }
 
-                setValueIntoStatement(psInsert, index, value);
-                index++;
-            }
+    private Page<T, I> findPage(final String sql, final int limit, final Function<I, Page<T, I>> nextPage,
+                                final Object... values) {
+        if (limit < 1) {
+            throw new RuntimeException("Page limit must be greater than zero.");
+        }
 
-            final int affectedRows = executeUpdate(psInsert);
+        session().acquire();
 
-            if (affectedRows == 1) {
-                final ResultSet generatedKeys = psInsert.getGeneratedKeys();
+        try {
+            final PreparedStatement preparedStatement = session().prepareStatement(sql);
+            preparedStatement.clearParameters();
 
-                if (generatedKeys.next()) {
-                    mapIdProperty(entity, generatedKeys);
-                    return entity;
-                }
+            for (int i = 0; i < values.length; i++) {
+                setValueIntoStatement(preparedStatement, i + 1, values[i]);
             }
 
-            return null;
+            preparedStatement.setLong(values.length + 1, limit + 1L);
 
-        } catch (Exception e) {
-            throw new RuntimeException("Error while save entity", e);
+            final long readStamp = EntityCache.readStamp();
+            final List<T> results = mapResults(sql, executeQuery(sql, preparedStatement), readStamp);
+            final boolean hasNext = results.size() > limit;
+
+            return new Page<>(hasNext ? new ArrayList<>(results.subList(0, limit)) : results, hasNext, nextPage);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on find page of " + type.getSimpleName(), e);
+        } finally {
+            session().release();
         }
     }
 
     @Override
-    public List<T> saveAll(List<T> entities) {
-        return entities.stream().map(this::save).collect(Collectors.toList());
+    public Stream<T> stream() {
+        return openCursor(metadata.getSelectAll()).stream();
     }
 
-    public T save(T entity) {
-        if (isNull(entity)) {
-            return null;
+    @Override
+    public Stream<T> streamByColumn(String column, Object value) {
+        verifyFieldExistence(column);
+        return openCursor(metadata.getSelectAllByColumn(column), value).stream();
+    }
+
+    public void parallelScan(int partitions, Consumer<T> consumer) {
+        final List<long[]> ranges = readIdRanges(partitions);
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicInteger nextRange = new AtomicInteger();
+        final int workers = Math.min(ranges.size(), getScanWorkers());
+        final List<CompletableFuture<Void>> scans = new ArrayList<>(workers);
+
+        for (int i = 0; i < workers; i++) {
+            scans.add(CompletableFuture.runAsync(() -> {
+                for (int index = nextRange.getAndIncrement(); index < ranges.size() && !cancelled.get();
+                     index = nextRange.getAndIncrement()) {
+                    scanRange(ranges.get(index), false, entity -> {
+                        consumer.accept(entity);
+                        return !cancelled.get();
+                    });
+                }
+            }, AsyncRepository.defaultExecutor()).whenComplete((ignored, e) -> {
+                if (nonNull(e)) {
+                    cancelled.set(true);
+                }
+            }));
         }
 
-        if (nonNull(entity.getId()) && exists(entity.getId())) {
-            return this.update(entity);
+        try {
+            CompletableFuture.allOf(scans.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Error on parallel scan of " + type.getSimpleName(), e.getCause());
         }
+    }
 
-        return this.create(entity);
+    public Stream<T> parallelScan(int partitions, boolean ordered) {
+        return new ParallelScan<>(this, readIdRanges(partitions), ordered, fetchSize, getScanWorkers(),
+                AsyncRepository.defaultExecutor(), ParallelScan.IDLE_TIMEOUT_MILLIS).stream();
     }
 
-    public T update(T entity) {
-        int index = 1;
+    private int getScanWorkers() {
+        final ConnectionPool pool = session().getPool();
+        return Math.max(1, pool.getMaxSize() - pool.getActiveConnections());
+    }
 
-        try {
-            psUpdate.clearParameters();
+    private List<long[]> readIdRanges(final int partitions) {
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Partitions must be greater than zero.");
+        }
 
-            for (final Map.Entry<String, Column> columnEntry : fields.entrySet()) {
-                final Column column = columnEntry.getValue();
-                final Object value;
+        if (isNull(session().getPool())) {
+            throw new RuntimeException("Parallel scan of " + type.getSimpleName() + " requires a connection pool");
+        }
 
-                if (column.isRelation()) {
-                    value = saveRelation(entity, column, true);
+        session().acquire();
 
-                    if (column.isOneToMany()) {
-                        continue;
-                    }
-                } else {
-                    value = column.get().get(entity);
-                }
+        final String selectIdRange = metadata.getSelectIdRange();
 
-                setValueIntoStatement(psUpdate, index, value);
-                index++;
+        try (final ResultSet result = executeQuery(selectIdRange, session().prepareStatement(selectIdRange))) {
+            if (!result.next() || isNull(result.getObject(1))) {
+                return Collections.emptyList();
             }
 
-            setValueIntoStatement(psUpdate, fieldsNumber + 1, entity.getId());
+            if (!(result.getObject(1) instanceof Number)) {
+                throw new RuntimeException("Parallel scan requires a numeric id on " + type.getSimpleName());
+            }
 
-            final int affectedRows = executeUpdate(psUpdate);
+            final long min = result.getLong(1);
+            final long max = result.getLong(2);
+            final long size = Math.max(1, (max - min + partitions) / partitions);
+            final List<long[]> ranges = new ArrayList<>(partitions);
 
-            if (affectedRows == 1) {
-                return entity;
+            for (long from = min; from <= max; from += size) {
+                ranges.add(new long[]{from, Math.min(max, from + size - 1) + 1});
             }
-            return null;
-        } catch (Exception e) {
-            throw new RuntimeException("Error on update entity " + type.getSimpleName(), e);
-        }
-    }
 
-    @Override
-    public boolean delete(T entity) {
-        return deleteById(entity.getId());
+            return ranges;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on read id range of " + type.getSimpleName(), e);
+        } finally {
+            session().release();
+        }
     }
 
-    @Override
-    public boolean deleteById(I id) {
-        try {
-            psDelete.clearParameters();
+    void scanRange(final long[] range, final boolean ordered, final Predicate<T> sink) {
+        final Repository<T, I> repository = new Session(session().getPool()).getRepository(type);
+        repository.setFetchSize(fetchSize);
 
-            setValueIntoStatement(psDelete, 1, id);
+        final String sql = metadata.getSelectRange(ordered);
 
-            return executeUpdate(psDelete) > 0;
-        } catch (SQLException e) {
-            throw new RuntimeException("Error on delete entity " + type.getSimpleName(), e);
+        try (final EntityCursor<T, I> cursor = repository.openCursor(sql, range[0], range[1])) {
+            while (cursor.hasNext()) {
+                if (!sink.test(cursor.next())) {
+                    return;
+                }
+            }
         }
     }
 
-    @Override
-    public T findByColumn(String column, Object value) {
-        try {
-            verifyFieldExistence(column);
+    private EntityCursor<T, I> openCursor(final String sql, final Object... values) {
+        final ConnectionPool pool = session().getPool();
+        final boolean dedicated = nonNull(pool) && !session().isTransactionActive();
+        final Session cursorSession = dedicated ? new Session(pool) : session();
+        final Repository<T, I> repository = dedicated ? cursorSession.getRepository(type) : this;
 
-            final String selectByColumn = "select * from " + table + " where " + column + " = ? limit 1";
-            final PreparedStatement preparedStatement = connection.prepareStatement(selectByColumn);
+        if (dedicated) {
+            cursorSession.acquire();
+        } else {
+            cursorSession.begin();
+        }
 
-            setValueIntoStatement(preparedStatement, 1, value);
+        PreparedStatement preparedStatement = null;
+
+        try {
+            final Connection connection = cursorSession.getConnection();
+
+            if (dedicated) {
+                connection.setAutoCommit(false);
+            }
+
+            preparedStatement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            preparedStatement.setFetchSize(fetchSize);
+
+            for (int i = 0; i < values.length; i++) {
+                setValueIntoStatement(preparedStatement, i + 1, values[i]);
+            }
 
-            final ResultSet result = executeQuery(preparedStatement);
+            final long readStamp = EntityCache.readStamp();
 
-            return result.next() ? mapperEntity(result) : null;
+            return new EntityCursor<>(repository, sql, preparedStatement, executeQuery(sql, preparedStatement),
+                    readStamp, fetchSize, dedicated ? cursorSession::close : cursorSession::commit);
         } catch (SQLException e) {
-            throw new RuntimeException("Error on find results of " + type.getSimpleName(), e);
+            try {
+                if (nonNull(preparedStatement)) {
+                    preparedStatement.close();
+                }
+            } catch (SQLException suppressed) {
+                e.addSuppressed(suppressed);
+            } finally {
+                if (dedicated) {
+                    cursorSession.close();
+                } else {
+                    cursorSession.rollback();
+                }
+            }
+
+            throw new RuntimeException("Error on stream results of " + type.getSimpleName(), e);
         }
     }
 
     @Override
-    public List<T> findAllByColumn(String column, Object value) {
+    public T find(I id) {
+        final List<T> loadedEntities = findLoaded(Collections.singletonList(id), new ArrayList<>(1));
+
+        if (!loadedEntities.isEmpty()) {
+            return loadedEntities.get(0);
+        }
+
+        session().acquire();
+
         try {
-            verifyFieldExistence(column);
+            final String select = metadata.getSelect();
+            final PreparedStatement psSelect = session().prepareStatement(select);
+            psSelect.clearParameters();
 
-            final String selectByColumn = "select * from " + table + " where " + column + " = ?";
-            final PreparedStatement preparedStatement = connection.prepareStatement(selectByColumn);
+            setValueIntoStatement(psSelect, 1, id);
 
-            setValueIntoStatement(preparedStatement, 1, value);
+            final long readStamp = EntityCache.readStamp();
+            return mapSingleResult(select, executeQuery(select, psSelect), readStamp);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on find unique result of " + type.getSimpleName(), e);
+        } finally {
+            session().release();
+        }
+    }
+
+    private Object[] saveRelations(T entity, boolean update) {
+        final List<Column> columns = metadata.getPersistentColumns();
+        final Object[] relationIds = new Object[columns.size()];
+
+        for (int i = 0; i < relationIds.length; i++) {
+            if (columns.get(i).isRelation()) {
+                relationIds[i] = saveRelation(entity, columns.get(i), update);
+            }
+        }
+
+        return relationIds;
+    }
+
+    private Object[] readRelationIds(T entity) {
+        final List<Column> columns = metadata.getPersistentColumns();
+        final Object[] relationIds = new Object[columns.size()];
+
+        for (int i = 0; i < relationIds.length; i++) {
+            if (columns.get(i).isRelation()) {
+                final Entity<?> relatedEntity = castToEntity(columns.get(i).getValue(entity));
+                relationIds[i] = isNull(relatedEntity) ? null : relatedEntity.getId();
+            }
+        }
+
+        return relationIds;
+    }
 
-            final ResultSet result = executeQuery(preparedStatement);
-            final List<T> resultList = new ArrayList<>();
+    private int bindColumns(PreparedStatement ps, T entity, Object[] relationIds) throws SQLException {
+        int index = 0;
 
-            while (result.next()) {
-                T entity = mapperEntity(result);
-                resultList.add(entity);
+        for (final Column column : metadata.getPersistentColumns()) {
+            if (column.isRelation()) {
+                setValueIntoStatement(ps, index + 1, relationIds[index]);
+            } else {
+                bindProperty(ps, index + 1, column, entity);
+            }
+            index++;
+        }
+
+        return index + 1;
+    }
+
+    @Override
+    public List<T> findAllById(Collection<I> ids) {
+        session().acquire();
+
+        try {
+            final List<I> missingIds = new ArrayList<>();
+            final List<T> resultList = findLoaded(ids, missingIds);
+
+            for (final List<Object> chunk : chunkValues(missingIds)) {
+                final String selectByIds = metadata.getSelectByIds(chunk.size());
+                final PreparedStatement psSelect = session().prepareStatement(selectByIds);
+                psSelect.clearParameters();
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    setValueIntoStatement(psSelect, i + 1, chunk.get(i));
+                }
+
+                final long readStamp = EntityCache.readStamp();
+                resultList.addAll(mapResults(selectByIds, executeQuery(selectByIds, psSelect), readStamp));
             }
 
             return resultList;
         } catch (SQLException e) {
             throw new RuntimeException("Error on find results of " + type.getSimpleName(), e);
+        } finally {
+            session().release();
+        }
+    }
+
+    public T create(T entity) {
+        return inTransaction(hasRelations(), () -> createEntity(entity));
+    }
+
+    private T createEntity(T entity) {
+        final List<T> inserted = Collections.singletonList(entity);
+
+        session().acquire();
+        session().getUnitOfWork().beginInsert(inserted);
+
+        try {
+            final Object[] relationIds = saveRelations(entity, false);
+            final String insert = metadata.getInsert();
+            final PreparedStatement psInsert = session().prepareStatement(insert, true);
+            psInsert.clearParameters();
+
+            bindColumns(psInsert, entity, relationIds);
+
+            final int affectedRows = executeUpdate(insert, psInsert);
+
+            if (affectedRows == 1) {
+                try (final ResultSet generatedKeys = psInsert.getGeneratedKeys()) {
+                    if (generatedKeys.next()) {
+                        mapGeneratedId(entity, generatedKeys);
+                        trackWrite(entity, getColumnValues(entity, relationIds));
+                        saveCollections(Collections.singletonList(entity));
+                        return entity;
+                    }
+                }
+            }
+
+            return null;
+
+        } catch (Exception e) {
+            throw new RuntimeException("Error while save entity", e);
+        } finally {
+            session().getUnitOfWork().endInsert(inserted);
+            session().release();
+        }
+    }
+
+    public List<T> createAll(List<T> entities) {
+        return inTransaction(entities.size() > 1 || hasRelations(), () -> createEntities(entities));
+    }
+
+    private List<T> createEntities(List<T> entities) {
+        session().acquire();
+        session().getUnitOfWork().beginInsert(entities);
+
+        try {
+            insertAll(entities, true);
+            saveCollections(entities);
+
+            return entities;
+        } catch (Exception e) {
+            throw new RuntimeException("Error while save entities of " + type.getSimpleName(), e);
+        } finally {
+            session().getUnitOfWork().endInsert(entities);
+            session().release();
+        }
+    }
+
+    void insertBatch(List<T> entities) throws SQLException {
+        insertAll(entities, false);
+    }
+
+    private void insertAll(List<T> entities, boolean cascade) throws SQLException {
+        for (int from = 0; from < entities.size(); from += batchSize) {
+            final List<T> chunk = new ArrayList<>(batchSize);
+            final List<Object[]> relationIds = new ArrayList<>(batchSize);
+
+            for (final T entity : entities.subList(from, Math.min(entities.size(), from + batchSize))) {
+                chunk.add(entity);
+                relationIds.add(cascade ? saveRelations(entity, false) : readRelationIds(entity));
+            }
+
+            final String insert = metadata.getInsert();
+            final PreparedStatement psInsert = session().prepareStatement(insert, true);
+            psInsert.clearParameters();
+
+            for (int i = 0; i < chunk.size(); i++) {
+                bindColumns(psInsert, chunk.get(i), relationIds.get(i));
+                psInsert.addBatch();
+            }
+
+            executeBatch(insert, psInsert);
+
+            try (final ResultSet generatedKeys = psInsert.getGeneratedKeys()) {
+                int index = 0;
+
+                while (index < chunk.size() && generatedKeys.next()) {
+                    final T entity = chunk.get(index);
+
+                    mapGeneratedId(entity, generatedKeys);
+                    trackWrite(entity, getColumnValues(entity, relationIds.get(index)));
+                    index++;
+                }
+
+                if (index != chunk.size()) {
+                    throw new RuntimeException("Driver returned " + index + " generated keys for " + chunk.size()
+                            + " inserted rows of " + type.getSimpleName());
+                }
+            }
         }
     }
 
     @Override
-    public boolean exists(I id) {
-        if (isNull(id)) return false;
+    public List<T> saveAll(List<T> entities) {
+        return inTransaction(entities.size() > 1 || hasRelations(), () -> saveEntities(entities));
+    }
+
+    private List<T> saveEntities(List<T> entities) {
+        session().acquire();
 
         try {
-            psExists.clearParameters();
+            final List<T> savedEntities = new ArrayList<>(entities.size());
+            final List<T> newEntities = new ArrayList<>();
+            final List<T> existingEntities = new ArrayList<>();
+
+            for (final T entity : entities) {
+                if (isNull(entity)) {
+                    savedEntities.add(null);
+                } else if (isNull(entity.getId())) {
+                    newEntities.add(entity);
+                    savedEntities.add(entity);
+                } else if (saveStrategy == SaveStrategy.EXISTS_CHECK || isTracked(entity)) {
+                    savedEntities.add(save(entity));
+                } else {
+                    existingEntities.add(entity);
+                    savedEntities.add(entity);
+                }
+            }
 
-            setValueIntoStatement(psExists, 1, id);
+            if (saveStrategy == SaveStrategy.UPDATE_FIRST) {
+                final int[] affectedRows = executeBatch(existingEntities, metadata.getUpdate());
+
+                for (int i = 0; i < affectedRows.length; i++) {
+                    if (affectedRows[i] == 0) {
+                        newEntities.add(existingEntities.get(i));
+                    }
+                }
+            } else if (saveStrategy.isUpsert()) {
+                executeBatch(existingEntities, metadata.getUpsert(saveStrategy));
+            }
+
+            createAll(newEntities);
+
+            return savedEntities;
+        } finally {
+            session().release();
+        }
+    }
+
+    public T persist(T entity) {
+        session().getUnitOfWork().register(type, entity);
+        return entity;
+    }
+
+    public T save(T entity) {
+        if (isNull(entity)) {
+            return null;
+        }
+
+        return inTransaction(hasRelations(), () -> saveEntity(entity));
+    }
+
+    private T saveEntity(T entity) {
+        if (isNull(entity.getId())) {
+            return this.create(entity);
+        }
+
+        if (isTracked(entity)) {
+            final T updatedEntity = this.update(entity);
+
+            if (nonNull(updatedEntity)) {
+                return updatedEntity;
+            }
+        }
+
+        session().acquire();
+
+        try {
+            switch (saveStrategy) {
+                case UPDATE_FIRST:
+                    final T updatedEntity = this.update(entity);
+                    return nonNull(updatedEntity) ? updatedEntity : this.create(entity);
+                case ON_CONFLICT:
+                case MERGE:
+                    return this.upsert(entity);
+                default:
+                    return exists(entity.getId()) ? this.update(entity) : this.create(entity);
+            }
+        } finally {
+            session().release();
+        }
+    }
+
+    private T upsert(T entity) {
+        try {
+            final Object[] relationIds = saveRelations(entity, true);
+            final String upsert = metadata.getUpsert(saveStrategy);
+            final PreparedStatement psUpsert = session().prepareStatement(upsert);
+            psUpsert.clearParameters();
+
+            final int index = bindColumns(psUpsert, entity, relationIds);
+
+            setValueIntoStatement(psUpsert, index, entity.getId());
+
+            executeUpdate(upsert, psUpsert);
+            trackWrite(entity, getColumnValues(entity, relationIds));
+            saveCollections(Collections.singletonList(entity));
+
+            return entity;
+        } catch (Exception e) {
+            throw new RuntimeException("Error on save entity " + type.getSimpleName(), e);
+        }
+    }
+
+    public T update(T entity) {
+        return inTransaction(hasRelations(), () -> updateEntity(entity));
+    }
+
+    private T updateEntity(T entity) {
+        session().acquire();
+
+        try {
+            final Object[] relationIds = saveRelations(entity, true);
+            final EntitySnapshots.Snapshot snapshot = session().getSnapshots().get(entity, entity.getId());
+            final T updatedEntity = nonNull(snapshot)
+                    ? updateChangedColumns(entity, relationIds, snapshot)
+                    : updateAllColumns(entity, relationIds);
+
+            if (nonNull(updatedEntity)) {
+                saveCollections(Collections.singletonList(updatedEntity));
+            }
+
+            return updatedEntity;
+        } catch (Exception e) {
+            throw new RuntimeException("Error on update entity " + type.getSimpleName(), e);
+        } finally {
+            session().release();
+        }
+    }
+
+    private T updateAllColumns(T entity, Object[] relationIds) throws SQLException {
+        final String update = metadata.getUpdate();
+        final PreparedStatement psUpdate = session().prepareStatement(update);
+        psUpdate.clearParameters();
+
+        final int index = bindColumns(psUpdate, entity, relationIds);
+
+        setValueIntoStatement(psUpdate, index, entity.getId());
+
+        if (executeUpdate(update, psUpdate) == 1) {
+            trackWrite(entity, getColumnValues(entity, relationIds));
+            return entity;
+        }
+
+        return null;
+    }
+
+    public List<T> updateAll(List<T> entities) {
+        return inTransaction(entities.size() > 1 || hasRelations(), () -> updateEntities(entities));
+    }
+
+    private List<T> updateEntities(List<T> entities) {
+        session().acquire();
+
+        try {
+            executeBatch(entities, metadata.getUpdate());
+            return entities;
+        } finally {
+            session().release();
+        }
+    }
+
+    private int[] executeBatch(List<T> entities, String sql) {
+        final int[] affectedRows = executeBatch(entities, sql, true);
+        final List<T> writtenEntities = new ArrayList<>(entities.size());
+
+        for (int i = 0; i < affectedRows.length; i++) {
+            if (affectedRows[i] > 0) {
+                writtenEntities.add(entities.get(i));
+            }
+        }
+
+        saveCollections(writtenEntities);
+        return affectedRows;
+    }
+
+    private int[] executeBatch(List<T> entities, String sql, boolean cascade) {
+        final int[] affectedRows = new int[entities.size()];
 
-            final ResultSet result = executeQuery(psExists);
+        try {
+            for (int from = 0; from < entities.size(); from += batchSize) {
+                final List<T> chunk = entities.subList(from, Math.min(entities.size(), from + batchSize));
+                final List<Object[]> relationIds = new ArrayList<>(chunk.size());
+
+                for (final T entity : chunk) {
+                    relationIds.add(cascade ? saveRelations(entity, true) : readRelationIds(entity));
+                }
+
+                final PreparedStatement ps = session().prepareStatement(sql);
+                ps.clearParameters();
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    final T entity = chunk.get(i);
+                    final int index = bindColumns(ps, entity, relationIds.get(i));
+
+                    setValueIntoStatement(ps, index, entity.getId());
+                    ps.addBatch();
+                }
+
+                final int[] chunkRows = executeBatch(sql, ps);
+
+                for (int i = 0; i < chunkRows.length; i++) {
+                    affectedRows[from + i] = chunkRows[i] == Statement.SUCCESS_NO_INFO ? 1 : chunkRows[i];
+
+                    if (affectedRows[from + i] > 0) {
+                        trackWrite(chunk.get(i), getColumnValues(chunk.get(i), relationIds.get(i)));
+                    }
+                }
+            }
+
+            return affectedRows;
+        } catch (Exception e) {
+            throw new RuntimeException("Error on update entities of " + type.getSimpleName(), e);
+        }
+    }
+
+    void updateBatch(List<T> entities) throws SQLException {
+        final List<T> untrackedEntities = new ArrayList<>();
+        final Map<BitSet, List<T>> entitiesByChanges = new LinkedHashMap<>();
+        final Map<T, Object[]> values = new IdentityHashMap<>();
+
+        for (final T entity : entities) {
+            final EntitySnapshots.Snapshot snapshot = session().getSnapshots().get(entity, entity.getId());
+
+            if (isNull(snapshot)) {
+                untrackedEntities.add(entity);
+                continue;
+            }
+
+            final Object[] entityValues = getColumnValues(entity, readRelationIds(entity));
+            final BitSet changedColumns = readChangedColumns(entity, entityValues, snapshot);
+
+            if (!changedColumns.isEmpty()) {
+                entitiesByChanges.computeIfAbsent(changedColumns, key -> new ArrayList<>()).add(entity);
+                values.put(entity, entityValues);
+            }
+        }
+
+        executeBatch(untrackedEntities, metadata.getUpdate(), false);
+
+        for (final Map.Entry<BitSet, List<T>> entry : entitiesByChanges.entrySet()) {
+            final BitSet changedColumns = entry.getKey();
+            final List<T> changedEntities = entry.getValue();
+
+            for (int from = 0; from < changedEntities.size(); from += batchSize) {
+                final List<T> chunk = changedEntities.subList(from, Math.min(changedEntities.size(), from + batchSize));
+                final String update = metadata.getUpdate(changedColumns);
+                final PreparedStatement psUpdate = session().prepareStatement(update);
+                psUpdate.clearParameters();
+
+                for (final T entity : chunk) {
+                    final Object[] entityValues = values.get(entity);
+                    int index = 1;
+
+                    for (int i = changedColumns.nextSetBit(0); i >= 0; i = changedColumns.nextSetBit(i + 1)) {
+                        setValueIntoStatement(psUpdate, index++, entityValues[i]);
+                    }
+
+                    setValueIntoStatement(psUpdate, index, entity.getId());
+                    psUpdate.addBatch();
+                }
+
+                final int[] affectedRows = executeBatch(update, psUpdate);
+
+                for (int i = 0; i < affectedRows.length; i++) {
+                    final T entity = chunk.get(i);
+
+                    if (affectedRows[i] != 0) {
+                        trackWrite(entity, values.get(entity));
+                    } else {
+                        session().getSnapshots().remove(entity);
+                        invalidateCache(entity.getId());
+                    }
+                }
+            }
+        }
+    }
+
+    void forget(T entity, Object id) {
+        session().getSnapshots().remove(entity);
+        session().getIdentityMap().remove(type, id);
+        invalidateCache(id);
+    }
+
+    private BitSet readChangedColumns(T entity, Object[] values, EntitySnapshots.Snapshot snapshot) {
+        final List<Column> columns = metadata.getPersistentColumns();
+        final Object[] previousValues = snapshot.getValues();
+        final BitSet changedColumns = new BitSet(values.length);
+
+        for (int i = 0; i < values.length; i++) {
+            final Column column = columns.get(i);
+
+            if (column.isLazyLoading() && isNull(values[i])
+                    && !metadata.getInstantiator().isInitialized(entity, column)) {
+                values[i] = previousValues[i];
+            } else if (!Objects.equals(values[i], previousValues[i])) {
+                changedColumns.set(i);
+            }
+        }
+
+        return changedColumns;
+    }
+
+    private T updateChangedColumns(T entity, Object[] relationIds, EntitySnapshots.Snapshot snapshot)
+            throws SQLException {
+        final Object[] values = getColumnValues(entity, relationIds);
+        final BitSet changedColumns = readChangedColumns(entity, values, snapshot);
+
+        if (changedColumns.isEmpty()) {
+            return entity;
+        }
+
+        final String update = metadata.getUpdate(changedColumns);
+        final PreparedStatement psUpdate = session().prepareStatement(update);
+        psUpdate.clearParameters();
+
+        int index = 1;
+
+        for (int i = changedColumns.nextSetBit(0); i >= 0; i = changedColumns.nextSetBit(i + 1)) {
+            setValueIntoStatement(psUpdate, index++, values[i]);
+        }
+
+        setValueIntoStatement(psUpdate, index, entity.getId());
+
+        if (executeUpdate(update, psUpdate) == 1) {
+            trackWrite(entity, values);
+            return entity;
+        }
+
+        session().getSnapshots().remove(entity);
+        invalidateCache(entity.getId());
+        return null;
+    }
+
+    @Override
+    public boolean delete(T entity) {
+        session().getSnapshots().remove(entity);
+        return deleteById(entity.getId());
+    }
+
+    @Override
+    public boolean deleteById(I id) {
+        session().acquire();
+
+        try {
+            session().getIdentityMap().remove(type, id);
+            session().getSnapshots().removeAll(type, Collections.singletonList(id));
+            invalidateCache(id);
+
+            final String delete = metadata.getDelete();
+            final PreparedStatement psDelete = session().prepareStatement(delete);
+            psDelete.clearParameters();
+
+            setValueIntoStatement(psDelete, 1, id);
+
+            return executeUpdate(delete, psDelete) > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on delete entity " + type.getSimpleName(), e);
+        } finally {
+            session().release();
+        }
+    }
+
+    @Override
+    public int deleteAllById(Collection<I> ids) {
+        session().acquire();
+
+        try {
+            int affectedRows = 0;
+
+            for (final I id : ids) {
+                session().getIdentityMap().remove(type, id);
+                invalidateCache(id);
+            }
+
+            session().getSnapshots().removeAll(type, ids);
+
+            for (final List<Object> chunk : chunkValues(ids)) {
+                final String deleteByIds = metadata.getDeleteByIds(chunk.size());
+                final PreparedStatement psDelete = session().prepareStatement(deleteByIds);
+                psDelete.clearParameters();
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    setValueIntoStatement(psDelete, i + 1, chunk.get(i));
+                }
 
-            return result.next() && result.getBoolean(1);
+                affectedRows += executeUpdate(deleteByIds, psDelete);
+            }
+
+            return affectedRows;
         } catch (SQLException e) {
-            return false;
+            throw new RuntimeException("Error on delete entities of " + type.getSimpleName(), e);
+        } finally {
+            session().release();
         }
     }
 
-    private enum ColumnType {
-        SIMPLE, ONE_TO_ONE, ONE_TO_MANY, MANY_TO_ONE;
+    @Override
+    public int deleteWhere(String column, Object value) {
+        session().acquire();
+
+        try {
+            verifyFieldExistence(column);
+            session().getIdentityMap().removeAll(type);
+            session().getSnapshots().removeAll(type);
+            clearCaches();
+
+            final String deleteByColumn = metadata.getDeleteByColumn(column);
+            final PreparedStatement psDelete = session().prepareStatement(deleteByColumn);
+            psDelete.clearParameters();
+
+            setValueIntoStatement(psDelete, 1, value);
 
-        public boolean isNotOneToMany() {
-            return this != ONE_TO_MANY;
+            return executeUpdate(deleteByColumn, psDelete);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on delete entities of " + type.getSimpleName(), e);
+        } finally {
+            session().release();
         }
     }
 
-    private static class Column {
-        private final Field field;
-        private final ColumnType columnType;
+    private List<List<Object>> chunkValues(final Collection<?> values) {
+        final List<Object> distinctValues = new ArrayList<>(new LinkedHashSet<>(values));
+        distinctValues.removeIf(Objects::isNull);
+
+        final List<List<Object>> chunks = new ArrayList<>();
+
+        for (int from = 0; from < distinctValues.size(); from += batchSize) {
+            final List<Object> chunk = new ArrayList<>(
+                    distinctValues.subList(from, Math.min(distinctValues.size(), from + batchSize)));
+            final int chunkSize = EntityMetadata.getChunkSize(chunk.size(), batchSize);
 
-        public Column(final Field field, final ColumnType columnType) {
-            this.field = field;
-            this.columnType = columnType;
+            while (chunk.size() < chunkSize) {
+                chunk.add(chunk.get(chunk.size() - 1));
+            }
+
+            chunks.add(chunk);
         }
 
-        public Field get() {
-            return field;
+        return chunks;
+    }
+
+    @Override
+    public T findByColumn(String column, Object value) {
+        final QueryCache queryCache = metadata.getQueryCache();
+        final List<Object> cachedIds = isNull(queryCache) ? null : queryCache.get(column, value, true);
+
+        if (nonNull(cachedIds)) {
+            final List<T> entities = findAllInOrder(cachedIds);
+            return entities.isEmpty() ? null : entities.get(0);
         }
 
-        public boolean isRelation() {
-            return columnType != ColumnType.SIMPLE;
+        session().acquire();
+
+        try {
+            verifyFieldExistence(column);
+
+            final long version = isNull(queryCache) ? 0 : queryCache.getVersion();
+            final String selectByColumn = metadata.getSelectByColumn(column);
+            final PreparedStatement preparedStatement = session().prepareStatement(selectByColumn);
+            preparedStatement.clearParameters();
+
+            setValueIntoStatement(preparedStatement, 1, value);
+
+            final long readStamp = EntityCache.readStamp();
+            final T entity = mapSingleResult(selectByColumn, executeQuery(selectByColumn, preparedStatement),
+                    readStamp);
+
+            if (nonNull(queryCache) && !session().isTransactionActive()) {
+                queryCache.put(column, value, true, version,
+                        isNull(entity) ? Collections.emptyList() : Collections.singletonList(entity.getId()));
+            }
+
+            return entity;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on find results of " + type.getSimpleName(), e);
+        } finally {
+            session().release();
         }
+    }
+
+    @Override
+    public List<T> findAllByColumn(String column, Object value) {
+        final QueryCache queryCache = metadata.getQueryCache();
+        final List<Object> cachedIds = isNull(queryCache) ? null : queryCache.get(column, value, false);
 
-        public boolean isOneToOne() {
-            return columnType == ColumnType.ONE_TO_ONE;
+        if (nonNull(cachedIds)) {
+            return findAllInOrder(cachedIds);
         }
 
-        public boolean isOneToMany() {
-            return columnType == ColumnType.ONE_TO_MANY;
+        session().acquire();
+
+        try {
+            verifyFieldExistence(column);
+
+            final long version = isNull(queryCache) ? 0 : queryCache.getVersion();
+            final String selectAllByColumn = metadata.getSelectAllByColumn(column);
+            final PreparedStatement preparedStatement = session().prepareStatement(selectAllByColumn);
+            preparedStatement.clearParameters();
+
+            setValueIntoStatement(preparedStatement, 1, value);
+
+            final long readStamp = EntityCache.readStamp();
+            final List<T> entities = mapResults(selectAllByColumn, executeQuery(selectAllByColumn, preparedStatement),
+                    readStamp);
+
+            if (nonNull(queryCache) && !session().isTransactionActive()) {
+                final List<Object> ids = new ArrayList<>(entities.size());
+
+                for (final T entity : entities) {
+                    ids.add(entity.getId());
+                }
+
+                queryCache.put(column, value, false, version, ids);
+            }
+
+            return entities;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on find results of " + type.getSimpleName(), e);
+        } finally {
+            session().release();
         }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<T> findAllInOrder(List<Object> ids) {
+        final Map<Object, T> entitiesById = new HashMap<>();
 
-        public boolean isManyToOne() {
-            return columnType == ColumnType.MANY_TO_ONE;
+        for (final T entity : findAllById((List<I>) (List<?>) ids)) {
+            entitiesById.put(entity.getId(), entity);
         }
 
-        private FetchType getFetchType() {
-            if (isOneToMany()) {
-                return field.getAnnotation(OneToMany.class).fetchType();
+        final List<T> entities = new ArrayList<>(ids.size());
+
+        for (final Object id : ids) {
+            final T entity = entitiesById.get(id);
+
+            if (nonNull(entity)) {
+                entities.add(entity);
             }
+        }
+
+        return entities;
+    }
+
+    int countByColumn(String column, Object value) {
+        session().acquire();
+
+        try {
+            verifyFieldExistence(column);
+
+            final String countByColumn = metadata.getCountByColumn(column);
+            final PreparedStatement preparedStatement = session().prepareStatement(countByColumn);
+            preparedStatement.clearParameters();
+            setValueIntoStatement(preparedStatement, 1, value);
 
-            if (isOneToOne()) {
-                return field.getAnnotation(OneToOne.class).fetchType();
+            try (ResultSet result = executeQuery(countByColumn, preparedStatement)) {
+                return result.next() ? result.getInt(1) : 0;
             }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on count results of " + type.getSimpleName(), e);
+        } finally {
+            session().release();
+        }
+    }
+
+    Map<Object, List<T>> findAllGroupedByColumn(String column, Class<?> keyType, Collection<?> values) {
+        session().acquire();
+
+        try {
+            verifyFieldExistence(column);
+
+            final Map<Object, List<T>> groups = new HashMap<>();
+            final RowMapper.ValueReader keyReader = RowMapper.valueReader(keyType);
 
-            if (isManyToOne()) {
-                return field.getAnnotation(ManyToOne.class).fetchType();
+            for (final List<Object> chunk : chunkValues(values)) {
+                final String selectByColumnIn = metadata.getSelectByColumnIn(column, chunk.size());
+                final PreparedStatement preparedStatement = session().prepareStatement(selectByColumnIn);
+                preparedStatement.clearParameters();
+
+                for (int i = 0; i < chunk.size(); i++) {
+                    setValueIntoStatement(preparedStatement, i + 1, chunk.get(i));
+                }
+
+                final int[] keyIndex = new int[1];
+                final RowCallback<T> groupByKey = (entity, rowMapper, result) -> {
+                    if (keyIndex[0] == 0) {
+                        keyIndex[0] = rowMapper.getIndex(column);
+                    }
+
+                    groups.computeIfAbsent(keyReader.read(result, keyIndex[0]), key -> new ArrayList<>()).add(entity);
+                };
+
+                final long readStamp = EntityCache.readStamp();
+                mapResults(selectByColumnIn, executeQuery(selectByColumnIn, preparedStatement), readStamp, groupByKey);
             }
 
-            return null;
+            return groups;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on find results of " + type.getSimpleName(), e);
+        } finally {
+            session().release();
         }
-        public boolean isLazyLoading() {
-            return isRelation() && FetchType.LAZY.equals(getFetchType());
+    }
+
+    @Override
+    public boolean exists(I id) {
+        if (isNull(id)) return false;
+
+        session().acquire();
+
+        try {
+            final String exists = metadata.getExists();
+            final PreparedStatement psExists = session().prepareStatement(exists);
+            psExists.clearParameters();
+
+            setValueIntoStatement(psExists, 1, id);
+
+            try (final ResultSet result = executeQuery(exists, psExists)) {
+                return result.next() && result.getBoolean(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on verify existence of " + type.getSimpleName(), e);
+        } finally {
+            session().release();
         }
     }
 }
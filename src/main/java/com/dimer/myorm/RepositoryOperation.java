@@ -1,12 +1,20 @@
 package com.dimer.myorm;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface RepositoryOperation<T extends Entity<I>, I> {
     List<T> findAll();
 
+    Stream<T> stream();
+
+    Page<T, I> findPage(I afterId, int limit);
+
     T find(I id);
 
+    List<T> findAllById(Collection<I> ids);
+
     T save(T entity);
 
     List<T> saveAll(List<T> entities);
@@ -15,9 +23,17 @@ public interface RepositoryOperation<T extends Entity<I>, I> {
 
     boolean deleteById(I id);
 
+    int deleteAllById(Collection<I> ids);
+
+    int deleteWhere(String column, Object value);
+
     T findByColumn(String column, Object value);
 
     List<T> findAllByColumn(String column, Object value);
 
+    Stream<T> streamByColumn(String column, Object value);
+
+    Page<T, I> findPageByColumn(String column, Object value, I afterId, int limit);
+
     boolean exists(I id);
 }
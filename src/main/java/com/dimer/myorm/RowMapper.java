@@ -0,0 +1,189 @@
+package com.dimer.myorm;
+
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+
+final class RowMapper<T> {
+
+    @FunctionalInterface
+    interface ValueReader {
+        Object read(ResultSet result, int index) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface PropertyReader {
+        void read(Object entity, ResultSet result) throws SQLException;
+    }
+
+    private static final ValueReader NULL_READER = (result, index) -> null;
+
+    private final Map<String, Integer> indexes;
+    private final ValueReader idReader;
+    private final int idIndex;
+    private final PropertyReader[] propertyReaders;
+    private final ValueReader[] relationReaders;
+    private final int[] relationIndexes;
+
+    RowMapper(final EntityMetadata<T> metadata, final ResultSetMetaData resultMetaData, final String prefix)
+            throws SQLException {
+        final Map<String, Integer> indexes = new HashMap<>();
+
+        for (int index = resultMetaData.getColumnCount(); index >= 1; index--) {
+            final String label = resultMetaData.getColumnLabel(index).toLowerCase(Locale.ROOT);
+
+            if (label.startsWith(prefix)) {
+                indexes.put(label.substring(prefix.length()), index);
+            }
+        }
+
+        final List<PropertyReader> propertyReaders = new ArrayList<>();
+        final Integer idIndex = isNull(metadata.getId()) ? null : indexes.get(metadata.getId().getName().toLowerCase(Locale.ROOT));
+
+        if (isNull(idIndex)) {
+            this.idReader = NULL_READER;
+            this.idIndex = 0;
+        } else {
+            this.idReader = valueReader(metadata.getId().getAccessor().getType());
+            this.idIndex = idIndex;
+            addPropertyReader(propertyReaders, metadata.getId(), indexes);
+        }
+
+        for (final Column column : metadata.getPersistentColumns()) {
+            if (!column.isRelation()) {
+                addPropertyReader(propertyReaders, column, indexes);
+            }
+        }
+
+        final List<Column> relations = metadata.getRelationColumns();
+        this.relationReaders = new ValueReader[relations.size()];
+        this.relationIndexes = new int[relations.size()];
+
+        for (int i = 0; i < relations.size(); i++) {
+            final Column column = relations.get(i);
+            final Integer index = indexes.get(column.getName().toLowerCase(Locale.ROOT));
+
+            if (column.isOneToMany() || isNull(index)) {
+                relationReaders[i] = NULL_READER;
+            } else {
+                relationReaders[i] = valueReader(EntityMetadata.of(column.getRelatedType()).getPrimaryKeyType());
+                relationIndexes[i] = index;
+            }
+        }
+
+        this.propertyReaders = propertyReaders.toArray(new PropertyReader[0]);
+        this.indexes = indexes;
+    }
+
+    public int getIndex(final String column) {
+        final Integer index = indexes.get(column.toLowerCase(Locale.ROOT));
+
+        if (isNull(index)) {
+            throw new RuntimeException("The column " + column + " is not present in the result.");
+        }
+
+        return index;
+    }
+
+    public void mapProperties(final Object entity, final ResultSet result) throws SQLException {
+        for (final PropertyReader reader : propertyReaders) {
+            reader.read(entity, result);
+        }
+    }
+
+    public Object readId(final ResultSet result) throws SQLException {
+        return idReader.read(result, idIndex);
+    }
+
+    public Object readRelationId(final int relation, final ResultSet result) throws SQLException {
+        return relationReaders[relation].read(result, relationIndexes[relation]);
+    }
+
+    private static void addPropertyReader(final List<PropertyReader> readers, final Column column,
+                                          final Map<String, Integer> indexes) {
+        final Integer index = indexes.get(column.getName().toLowerCase(Locale.ROOT));
+
+        if (!isNull(index)) {
+            readers.add(propertyReader(column.getAccessor(), index));
+        }
+    }
+
+    private static PropertyReader propertyReader(final FieldAccessor accessor, final int index) {
+        final Class<?> type = accessor.getType();
+
+        if (type == int.class) {
+            return (entity, result) -> accessor.setInt(entity, result.getInt(index));
+        } else if (type == long.class) {
+            return (entity, result) -> accessor.setLong(entity, result.getLong(index));
+        } else if (type == double.class) {
+            return (entity, result) -> accessor.setDouble(entity, result.getDouble(index));
+        } else if (type == float.class) {
+            return (entity, result) -> accessor.setFloat(entity, result.getFloat(index));
+        } else if (type == boolean.class) {
+            return (entity, result) -> accessor.setBoolean(entity, result.getBoolean(index));
+        }
+
+        final ValueReader reader = valueReader(type);
+        return (entity, result) -> accessor.set(entity, reader.read(result, index));
+    }
+
+    static ValueReader valueReader(final Class<?> type) {
+        if (type == String.class) {
+            return ResultSet::getString;
+        } else if (type == Integer.class || type == int.class) {
+            return (result, index) -> {
+                final int value = result.getInt(index);
+                return result.wasNull() ? null : value;
+            };
+        } else if (type == Long.class || type == long.class) {
+            return (result, index) -> {
+                final long value = result.getLong(index);
+                return result.wasNull() ? null : value;
+            };
+        } else if (type == Double.class || type == double.class) {
+            return (result, index) -> {
+                final double value = result.getDouble(index);
+                return result.wasNull() ? null : value;
+            };
+        } else if (type == Float.class || type == float.class) {
+            return (result, index) -> {
+                final float value = result.getFloat(index);
+                return result.wasNull() ? null : value;
+            };
+        } else if (type == Boolean.class || type == boolean.class) {
+            return (result, index) -> {
+                final boolean value = result.getBoolean(index);
+                return result.wasNull() ? null : value;
+            };
+        } else if (type == LocalDate.class) {
+            return (result, index) -> {
+                final Date date = result.getDate(index);
+                return isNull(date) ? null : date.toLocalDate();
+            };
+        } else if (type == LocalDateTime.class) {
+            return (result, index) -> {
+                final Timestamp timestamp = result.getTimestamp(index);
+                return isNull(timestamp) ? null : timestamp.toLocalDateTime();
+            };
+        } else if (type.isEnum()) {
+            final Object[] constants = type.getEnumConstants();
+            return (result, index) -> {
+                final int ordinal = result.getInt(index);
+                return result.wasNull() || ordinal < 0 || ordinal >= constants.length ? null : constants[ordinal];
+            };
+        }
+
+        return NULL_READER;
+    }
+}
@@ -0,0 +1,9 @@
+package com.dimer.myorm;
+
+public enum SaveStrategy {
+    EXISTS_CHECK, UPDATE_FIRST, ON_CONFLICT, MERGE;
+
+    public boolean isUpsert() {
+        return this == ON_CONFLICT || this == MERGE;
+    }
+}
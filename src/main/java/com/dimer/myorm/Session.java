@@ -0,0 +1,316 @@
+package com.dimer.myorm;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+public class Session implements AutoCloseable {
+    private final ConnectionPool pool;
+    private final boolean threadBound;
+    private final Map<Class<?>, Repository<?, ?>> repositories = new HashMap<>();
+    private final EntitySnapshots snapshots = new EntitySnapshots();
+    private final IdentityMap identityMap = new IdentityMap();
+    private final UnitOfWork unitOfWork = new UnitOfWork(this);
+    private final Deque<Savepoint> savepoints = new ArrayDeque<>();
+    private final List<Runnable> completionActions = new ArrayList<>();
+    private final StatementCacheStats statementCacheStats;
+
+    private PooledConnection connection;
+    private int depth;
+    private int transactionDepth;
+    private boolean previousAutoCommit;
+    private boolean closed;
+
+    public Session(final Connection connection) {
+        this(connection, StatementCache.DEFAULT_SIZE);
+    }
+
+    public Session(final Connection connection, final int statementCacheSize) {
+        this.pool = null;
+        this.threadBound = false;
+        this.statementCacheStats = new StatementCacheStats();
+        this.connection = new PooledConnection(connection, statementCacheSize, statementCacheStats);
+    }
+
+    public Session(final ConnectionPool pool) {
+        this(pool, false);
+    }
+
+    Session(final ConnectionPool pool, final boolean threadBound) {
+        this.pool = pool;
+        this.threadBound = threadBound;
+        this.statementCacheStats = pool.getStatementCacheStats();
+    }
+
+    public Connection getConnection() {
+        return getPooledConnection().getConnection();
+    }
+
+    @SuppressWarnings("unchecked")
+    public <E extends Entity<I>, I> Repository<E, I> getRepository(final Class<E> type) {
+        verifyOpen();
+
+        if (threadBound) {
+            return Repository.of(type);
+        }
+
+        return (Repository<E, I>) repositories.computeIfAbsent(type, key -> new Repository<>(type, this));
+    }
+
+    public StatementCacheStats getStatementCacheStats() {
+        return statementCacheStats;
+    }
+
+    ConnectionPool getPool() {
+        return pool;
+    }
+
+    EntitySnapshots getSnapshots() {
+        return snapshots;
+    }
+
+    IdentityMap getIdentityMap() {
+        return identityMap;
+    }
+
+    public UnitOfWork getUnitOfWork() {
+        verifyOpen();
+        return unitOfWork;
+    }
+
+    public void clear() {
+        verifyOpen();
+        unitOfWork.clear();
+        snapshots.clear();
+        identityMap.clear();
+    }
+
+    public boolean isTransactionActive() {
+        return transactionDepth > 0;
+    }
+
+    public void begin() {
+        acquire();
+
+        try {
+            final Connection jdbcConnection = getConnection();
+
+            if (transactionDepth == 0) {
+                previousAutoCommit = jdbcConnection.getAutoCommit();
+                jdbcConnection.setAutoCommit(false);
+            } else {
+                savepoints.push(jdbcConnection.setSavepoint());
+            }
+
+            transactionDepth++;
+        } catch (SQLException e) {
+            release();
+            throw new RuntimeException("Error on begin transaction", e);
+        }
+    }
+
+    public void commit() {
+        verifyTransaction();
+
+        final Connection jdbcConnection = getConnection();
+
+        try {
+            if (transactionDepth > 1) {
+                transactionDepth--;
+                jdbcConnection.releaseSavepoint(savepoints.pop());
+                return;
+            }
+
+            try {
+                jdbcConnection.commit();
+            } catch (SQLException e) {
+                jdbcConnection.rollback();
+                discardManagedEntities();
+                throw e;
+            } finally {
+                completeTransaction(jdbcConnection);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on commit transaction", e);
+        } finally {
+            release();
+        }
+    }
+
+    public void rollback() {
+        verifyTransaction();
+
+        final Connection jdbcConnection = getConnection();
+
+        try {
+            discardManagedEntities();
+
+            if (transactionDepth > 1) {
+                transactionDepth--;
+                jdbcConnection.rollback(savepoints.pop());
+                return;
+            }
+
+            try {
+                jdbcConnection.rollback();
+            } finally {
+                completeTransaction(jdbcConnection);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on rollback transaction", e);
+        } finally {
+            release();
+        }
+    }
+
+    public void inTransaction(final Consumer<Session> work) {
+        callInTransaction(session -> {
+            work.accept(session);
+            return null;
+        });
+    }
+
+    public <R> R callInTransaction(final Function<Session, R> work) {
+        begin();
+
+        final R result;
+
+        try {
+            result = work.apply(this);
+        } catch (RuntimeException | Error e) {
+            rollback();
+            throw e;
+        }
+
+        commit();
+        return result;
+    }
+
+    void afterCompletion(final Runnable action) {
+        completionActions.add(action);
+    }
+
+    private void completeTransaction(final Connection jdbcConnection) throws SQLException {
+        savepoints.clear();
+        transactionDepth = 0;
+
+        try {
+            jdbcConnection.setAutoCommit(previousAutoCommit);
+        } finally {
+
+            final List<Runnable> actions = new ArrayList<>(completionActions);
+            completionActions.clear();
+
+            for (final Runnable action : actions) {
+                action.run();
+            }
+        }
+    }
+
+    private void discardManagedEntities() {
+        snapshots.clear();
+        identityMap.clear();
+    }
+
+    private void verifyTransaction() {
+        verifyOpen();
+
+        if (transactionDepth == 0) {
+            throw new RuntimeException("There is no active transaction.");
+        }
+    }
+
+    void acquire() {
+        getPooledConnection();
+        depth++;
+    }
+
+    void release() {
+        if (depth > 0 && --depth == 0) {
+            releaseConnection();
+
+            if (threadBound) {
+                identityMap.clear();
+            }
+        }
+    }
+
+    private PooledConnection getPooledConnection() {
+        verifyOpen();
+
+        if (isNull(connection)) {
+            connection = pool.borrow();
+        }
+
+        return connection;
+    }
+
+    private void releaseConnection() {
+        if (nonNull(pool) && nonNull(connection)) {
+            final PooledConnection released = connection;
+            connection = null;
+            pool.release(released);
+        }
+    }
+
+    PreparedStatement prepareStatement(final String sql) throws SQLException {
+        return prepareStatement(sql, false);
+    }
+
+    PreparedStatement prepareStatement(final String sql, final boolean returnGeneratedKeys) throws SQLException {
+        return getPooledConnection().prepareStatement(sql, returnGeneratedKeys);
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    private void verifyOpen() {
+        if (closed) {
+            throw new RuntimeException("Session is already closed.");
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+
+        if (isTransactionActive()) {
+            savepoints.clear();
+            transactionDepth = 1;
+            rollback();
+        }
+
+        closed = true;
+        depth = 0;
+        repositories.clear();
+        unitOfWork.clear();
+        snapshots.clear();
+        identityMap.clear();
+
+        if (nonNull(pool)) {
+            releaseConnection();
+            return;
+        }
+
+        try {
+            connection.closeStatements();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error while closing session statements", e);
+        }
+    }
+}
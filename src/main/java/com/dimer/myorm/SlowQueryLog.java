@@ -0,0 +1,36 @@
+package com.dimer.myorm;
+
+import java.sql.PreparedStatement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+public class SlowQueryLog implements SqlListener {
+    private final long thresholdNanos;
+    private final Consumer<String> sink;
+    private final boolean logParameters;
+    private final LongAdder slowQueries = new LongAdder();
+
+    public SlowQueryLog(final long thresholdMillis, final Consumer<String> sink) {
+        this(thresholdMillis, sink, false);
+    }
+
+    public SlowQueryLog(final long thresholdMillis, final Consumer<String> sink, final boolean logParameters) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sink = sink;
+        this.logParameters = logParameters;
+    }
+
+    @Override
+    public void onStatement(final String sql, final PreparedStatement statement, final long elapsedNanos) {
+        if (elapsedNanos >= thresholdNanos) {
+            slowQueries.increment();
+            sink.accept(String.format("Slow SQL (%.1f ms): %s", elapsedNanos / 1_000_000d,
+                    logParameters ? statement : sql));
+        }
+    }
+
+    public long getSlowQueries() {
+        return slowQueries.sum();
+    }
+}
@@ -0,0 +1,14 @@
+package com.dimer.myorm;
+
+import java.sql.PreparedStatement;
+
+public interface SqlListener {
+    default void onStatement(String sql, PreparedStatement statement, long elapsedNanos) {
+    }
+
+    default void onRowsMapped(Class<?> type, String sql, int rows) {
+    }
+
+    default void onRelationLoad(Class<?> ownerType, String relation, int keys) {
+    }
+}
@@ -0,0 +1,92 @@
+package com.dimer.myorm;
+
+import java.sql.PreparedStatement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SqlMetrics implements SqlListener {
+    private final Map<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final Map<String, RelationStats> relations = new ConcurrentHashMap<>();
+
+    @Override
+    public void onStatement(final String sql, final PreparedStatement statement, final long elapsedNanos) {
+        statements.computeIfAbsent(sql, key -> new StatementStats()).latency.record(elapsedNanos);
+    }
+
+    @Override
+    public void onRowsMapped(final Class<?> type, final String sql, final int rows) {
+        final StatementStats stats = statements.computeIfAbsent(sql, key -> new StatementStats());
+
+        stats.mappings.increment();
+        stats.rows.add(rows);
+    }
+
+    @Override
+    public void onRelationLoad(final Class<?> ownerType, final String relation, final int keys) {
+        final RelationStats stats = relations.computeIfAbsent(ownerType.getSimpleName() + "." + relation,
+                key -> new RelationStats());
+
+        stats.loads.increment();
+        stats.keys.add(keys);
+    }
+
+    public Map<String, StatementStats> getStatements() {
+        return Collections.unmodifiableMap(statements);
+    }
+
+    public StatementStats getStatement(final String sql) {
+        return statements.get(sql);
+    }
+
+    public Map<String, RelationStats> getRelations() {
+        return Collections.unmodifiableMap(relations);
+    }
+
+    public RelationStats getRelation(final Class<?> ownerType, final String relation) {
+        return relations.get(ownerType.getSimpleName() + "." + relation);
+    }
+
+    public void reset() {
+        statements.clear();
+        relations.clear();
+    }
+
+    public static final class StatementStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder mappings = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getRowsMapped() {
+            return rows.sum();
+        }
+
+        public double getAverageRowsMapped() {
+            final long count = mappings.sum();
+            return count == 0 ? 0 : rows.sum() / (double) count;
+        }
+    }
+
+    public static final class RelationStats {
+        private final LongAdder loads = new LongAdder();
+        private final LongAdder keys = new LongAdder();
+
+        public long getLoads() {
+            return loads.sum();
+        }
+
+        public long getKeys() {
+            return keys.sum();
+        }
+
+        public double getAverageKeysPerLoad() {
+            final long count = loads.sum();
+            return count == 0 ? 0 : keys.sum() / (double) count;
+        }
+    }
+}
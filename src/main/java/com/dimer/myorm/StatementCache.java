@@ -0,0 +1,92 @@
+package com.dimer.myorm;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class StatementCache {
+    static final int DEFAULT_SIZE = 256;
+
+    private static final String[] GENERATED_VALUES = new String[]{ "id" };
+
+    private final Connection connection;
+    private final int maxSize;
+    private final StatementCacheStats stats;
+    private final LinkedHashMap<String, PreparedStatement> statements;
+
+    StatementCache(final Connection connection, final int maxSize, final StatementCacheStats stats) {
+        if (maxSize < 1) {
+            throw new RuntimeException("Statement cache size must be greater than zero.");
+        }
+
+        this.connection = connection;
+        this.maxSize = maxSize;
+        this.stats = stats;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= StatementCache.this.maxSize) {
+                    return false;
+                }
+
+                evict(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    public PreparedStatement get(final String sql, final boolean returnGeneratedKeys) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+
+        if (statement != null) {
+            stats.recordHit();
+            return statement;
+        }
+
+        stats.recordMiss();
+        statement = returnGeneratedKeys
+                ? connection.prepareStatement(sql, GENERATED_VALUES)
+                : connection.prepareStatement(sql);
+        statements.put(sql, statement);
+
+        return statement;
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    private void evict(final PreparedStatement statement) {
+        stats.recordEviction();
+
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // an evicted statement is never handed out again
+        }
+    }
+
+    public void close() throws SQLException {
+        SQLException error = null;
+
+        for (final PreparedStatement statement : statements.values()) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+
+        statements.clear();
+
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.dimer.myorm;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class StatementCacheStats {
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    void recordHit() {
+        hits.increment();
+    }
+
+    void recordMiss() {
+        misses.increment();
+    }
+
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public double getHitRatio() {
+        final long hitCount = getHits();
+        final long total = hitCount + getMisses();
+
+        return total == 0 ? 0 : hitCount / (double) total;
+    }
+}
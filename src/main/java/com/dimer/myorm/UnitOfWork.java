@@ -0,0 +1,267 @@
+package com.dimer.myorm;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+public final class UnitOfWork {
+    private final Session session;
+    private final Map<Entity<?>, Class<?>> registered = new IdentityHashMap<>();
+    private final List<Entity<?>> registrationOrder = new ArrayList<>();
+    private final Set<Entity<?>> inserting = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    UnitOfWork(final Session session) {
+        this.session = session;
+    }
+
+    public <E extends Entity<?>> void register(final Class<E> type, final E entity) {
+        if (isNull(entity) || nonNull(registered.put(entity, type))) {
+            return;
+        }
+
+        registrationOrder.add(entity);
+    }
+
+    void beginInsert(final List<? extends Entity<?>> entities) {
+        inserting.addAll(entities);
+    }
+
+    void endInsert(final List<? extends Entity<?>> entities) {
+        inserting.removeAll(entities);
+    }
+
+    boolean isInserting(final Entity<?> entity) {
+        return inserting.contains(entity);
+    }
+
+    public int getPendingCount() {
+        return registrationOrder.size();
+    }
+
+    public void clear() {
+        registered.clear();
+        registrationOrder.clear();
+    }
+
+    public void commit() {
+        if (registrationOrder.isEmpty()) {
+            return;
+        }
+
+        final List<Node> nodes = collectNodes();
+        final List<Node> inserted = new ArrayList<>();
+
+        session.begin();
+
+        try {
+            insert(nodes, inserted);
+            update(nodes);
+        } catch (Exception e) {
+            session.rollback();
+            discard(inserted);
+            throw new RuntimeException("Error on commit unit of work", e);
+        }
+
+        try {
+            session.commit();
+        } catch (RuntimeException e) {
+            discard(inserted);
+            throw e;
+        }
+
+        clear();
+    }
+
+    private List<Node> collectNodes() {
+        final Map<Entity<?>, Node> nodesByEntity = new IdentityHashMap<>();
+        final List<Node> nodes = new ArrayList<>();
+        final Deque<Node> pending = new ArrayDeque<>();
+
+        for (final Entity<?> entity : registrationOrder) {
+            getNode(nodesByEntity, nodes, pending, registered.get(entity), entity).written = true;
+        }
+
+        while (!pending.isEmpty()) {
+            final Node node = pending.poll();
+
+            for (final Column column : EntityMetadata.of(node.type).getRelationColumns()) {
+                if (column.isOneToMany()) {
+                    for (final Entity<?> child : Repository.getLoadedCollection(node.entity, column)) {
+                        if (isNull(child)) {
+                            continue;
+                        }
+
+                        final Node childNode = getNode(nodesByEntity, nodes, pending, column.getRelatedType(), child);
+                        childNode.written = true;
+                        childNode.parents.add(new ParentLink(column, node));
+
+                        if (node.created) {
+                            childNode.dependencies.add(node);
+                        }
+                    }
+                } else {
+                    final Entity<?> relatedEntity = (Entity<?>) column.getValue(node.entity);
+
+                    if (isNull(relatedEntity)) {
+                        continue;
+                    }
+
+                    final Node relatedNode = getNode(nodesByEntity, nodes, pending, column.getRelatedType(),
+                            relatedEntity);
+
+                    if (relatedNode.created) {
+                        relatedNode.written = true;
+                        node.dependencies.add(relatedNode);
+                    } else if (session.getSnapshots().get(relatedEntity, relatedEntity.getId()) != null) {
+                        relatedNode.written = true;
+                    }
+                }
+            }
+        }
+
+        return nodes;
+    }
+
+    private static Node getNode(final Map<Entity<?>, Node> nodesByEntity, final List<Node> nodes,
+                                final Deque<Node> pending, final Class<?> type, final Entity<?> entity) {
+        Node node = nodesByEntity.get(entity);
+
+        if (isNull(node)) {
+            node = new Node(type, entity);
+            nodesByEntity.put(entity, node);
+            nodes.add(node);
+            pending.add(node);
+        }
+
+        return node;
+    }
+
+    private void insert(final List<Node> nodes, final List<Node> inserted) throws SQLException {
+        List<Node> remaining = new ArrayList<>();
+
+        for (final Node node : nodes) {
+            if (node.created && node.written) {
+                remaining.add(node);
+            }
+        }
+
+        while (!remaining.isEmpty()) {
+            final Map<Class<?>, List<Node>> ready = new LinkedHashMap<>();
+            final List<Node> blocked = new ArrayList<>();
+
+            for (final Node node : remaining) {
+                if (node.isReady()) {
+                    ready.computeIfAbsent(node.type, key -> new ArrayList<>()).add(node);
+                } else {
+                    blocked.add(node);
+                }
+            }
+
+            if (ready.isEmpty()) {
+                throw new RuntimeException("Cyclic dependency between new entities of "
+                        + blocked.get(0).type.getSimpleName());
+            }
+
+            for (final Map.Entry<Class<?>, List<Node>> entry : ready.entrySet()) {
+                getRepository(entry.getKey()).insertBatch(linkEntities(entry.getValue()));
+
+                for (final Node node : entry.getValue()) {
+                    node.inserted = true;
+                    inserted.add(node);
+                }
+            }
+
+            remaining = blocked;
+        }
+    }
+
+    private void update(final List<Node> nodes) throws SQLException {
+        final Map<Class<?>, List<Node>> nodesByType = new LinkedHashMap<>();
+
+        for (final Node node : nodes) {
+            if (!node.created && node.written) {
+                nodesByType.computeIfAbsent(node.type, key -> new ArrayList<>()).add(node);
+            }
+        }
+
+        for (final Map.Entry<Class<?>, List<Node>> entry : nodesByType.entrySet()) {
+            getRepository(entry.getKey()).updateBatch(linkEntities(entry.getValue()));
+        }
+    }
+
+    private void discard(final List<Node> inserted) {
+        for (final Node node : inserted) {
+            final Column id = EntityMetadata.of(node.type).getId();
+
+            getRepository(node.type).forget(node.entity, node.entity.getId());
+            id.setValue(node.entity, null);
+        }
+    }
+
+    private static List<Entity<Object>> linkEntities(final List<Node> nodes) {
+        final List<Entity<Object>> entities = new ArrayList<>(nodes.size());
+
+        for (final Node node : nodes) {
+            for (final ParentLink parent : node.parents) {
+                Repository.linkChild(parent.column, parent.node.entity, node.entity);
+            }
+
+            entities.add(node.entity);
+        }
+
+        return entities;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Repository<Entity<Object>, Object> getRepository(final Class<?> type) {
+        return session.getRepository((Class<Entity<Object>>) type);
+    }
+
+    private static final class Node {
+        private final Class<?> type;
+        private final Entity<Object> entity;
+        private final boolean created;
+        private final List<Node> dependencies = new ArrayList<>();
+        private final List<ParentLink> parents = new ArrayList<>();
+
+        private boolean written;
+        private boolean inserted;
+
+        @SuppressWarnings("unchecked")
+        private Node(final Class<?> type, final Entity<?> entity) {
+            this.type = type;
+            this.entity = (Entity<Object>) entity;
+            this.created = isNull(entity.getId());
+        }
+
+        private boolean isReady() {
+            for (final Node dependency : dependencies) {
+                if (!dependency.inserted) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+
+    private static final class ParentLink {
+        private final Column column;
+        private final Node node;
+
+        private ParentLink(final Column column, final Node node) {
+            this.column = column;
+            this.node = node;
+        }
+    }
+}
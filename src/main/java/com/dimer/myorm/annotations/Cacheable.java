@@ -0,0 +1,13 @@
+package com.dimer.myorm.annotations;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cacheable {
+    int maxSize() default 10_000;
+
+    long ttlSeconds() default 300;
+
+    int queryCacheSize() default 0;
+}
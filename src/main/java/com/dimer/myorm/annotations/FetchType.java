@@ -1,5 +1,5 @@
 package com.dimer.myorm.annotations;
 
 public enum FetchType {
-    EAGER, LAZY
+    EAGER, LAZY, JOIN
 }
@@ -8,4 +8,6 @@ public @interface OneToMany {
     String column();
 
     FetchType fetchType() default FetchType.LAZY;
+
+    boolean countSize() default false;
 }
@@ -0,0 +1,83 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Id;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class AsyncRepositoryTest {
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool("async_repository",
+                "create table ticket(id int auto_increment primary key, subject varchar(50))");
+        pool.setMaxSize(2);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void callsRunInParallelAndReturnTheirConnections() {
+        final AsyncRepository<Ticket, Integer> tickets = new AsyncRepository<>(Ticket.class, pool,
+                AsyncRepository.defaultExecutor(), 2);
+        final List<CompletableFuture<Ticket>> saves = new ArrayList<>();
+
+        for (int i = 0; i < 20; i++) {
+            final Ticket ticket = new Ticket();
+            ticket.setSubject("ticket-" + i);
+            saves.add(tickets.save(ticket));
+        }
+
+        CompletableFuture.allOf(saves.toArray(new CompletableFuture<?>[0])).join();
+
+        assertEquals(20, tickets.findAll().join().size());
+        assertEquals("ticket-3", tickets.find(saves.get(3).join().getId()).join().getSubject());
+        assertEquals(0, pool.getActiveConnections());
+        assertEquals(2, tickets.getAvailablePermits());
+    }
+
+    @Test
+    void failedCallReleasesItsConnectionAndPermit() {
+        final AsyncRepository<Ticket, Integer> tickets = new AsyncRepository<>(Ticket.class, pool,
+                AsyncRepository.defaultExecutor(), 2);
+
+        assertThrows(CompletionException.class, () -> tickets.findAllByColumn("missing", 1).join());
+        assertEquals(0, pool.getActiveConnections());
+        assertEquals(2, tickets.getAvailablePermits());
+    }
+
+    public static class Ticket implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String subject;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getSubject() {
+            return subject;
+        }
+
+        public void setSubject(final String subject) {
+            this.subject = subject;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Id;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchWriteTest {
+    private static final String DATABASE = "batch_write";
+
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool(DATABASE,
+                "create table reading(id int auto_increment primary key, sensor varchar(20), reading_value int)");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void saveAllInsertsInBatches() {
+        final Repository<Reading, Integer> readings = new Session(pool).getRepository(Reading.class);
+        readings.setBatchSize(10);
+
+        final List<Reading> saved;
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            saved = readings.saveAll(newReadings("inserted", 25));
+
+            assertEquals(3, recorder.getStatements().size());
+        }
+
+        saved.forEach(reading -> assertNotNull(reading.getId()));
+        assertEquals(25, count("inserted"));
+    }
+
+    @Test
+    void updateAllAndDeleteAllByIdRunInBatches() {
+        final Repository<Reading, Integer> readings = new Session(pool).getRepository(Reading.class);
+        readings.setBatchSize(10);
+
+        final List<Reading> saved = readings.saveAll(newReadings("updated", 25));
+        saved.forEach(reading -> reading.setReadingValue(reading.getReadingValue() + 100));
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            readings.updateAll(saved);
+
+            assertEquals(3, recorder.getStatements().size());
+        }
+
+        assertEquals(25, TestDatabase.queryLong(DATABASE,
+                "select count(*) from reading where sensor = 'updated' and reading_value >= 100"));
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            assertEquals(25, readings.deleteAllById(saved.stream().map(Reading::getId).collect(Collectors.toList())));
+
+            assertEquals(3, recorder.getStatements().size());
+            recorder.getStatements().forEach(sql -> assertTrue(sql.startsWith("delete from reading where id in (")));
+        }
+
+        assertEquals(0, count("updated"));
+    }
+
+    @Test
+    void mergeStrategySavesInOneStatement() {
+        final Reading reading = new Session(pool).getRepository(Reading.class).save(newReadings("merged", 1).get(0));
+        final Repository<Reading, Integer> readings = new Session(pool).getRepository(Reading.class);
+        readings.setSaveStrategy(SaveStrategy.MERGE);
+
+        reading.setReadingValue(42);
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            readings.save(reading);
+
+            assertEquals(1, recorder.getStatements().size());
+            assertTrue(recorder.getStatements().get(0).startsWith("merge into reading"));
+        }
+
+        assertEquals(42, TestDatabase.queryLong(DATABASE,
+                "select reading_value from reading where id = " + reading.getId()));
+        assertEquals(1, count("merged"));
+    }
+
+    private static List<Reading> newReadings(final String sensor, final int size) {
+        final List<Reading> readings = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            final Reading reading = new Reading();
+            reading.setSensor(sensor);
+            reading.setReadingValue(i);
+            readings.add(reading);
+        }
+
+        return readings;
+    }
+
+    private static long count(final String sensor) {
+        return TestDatabase.queryLong(DATABASE, "select count(*) from reading where sensor = '" + sensor + "'");
+    }
+
+    public static class Reading implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String sensor;
+        private Integer readingValue;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getSensor() {
+            return sensor;
+        }
+
+        public void setSensor(final String sensor) {
+            this.sensor = sensor;
+        }
+
+        public Integer getReadingValue() {
+            return readingValue;
+        }
+
+        public void setReadingValue(final Integer readingValue) {
+            this.readingValue = readingValue;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Id;
+import com.dimer.myorm.annotations.ManyToOne;
+import com.dimer.myorm.annotations.OneToMany;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CascadeSaveTest {
+    private static final String DATABASE = "cascade_save";
+
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool(DATABASE,
+                "create table sales_order(id int auto_increment primary key, customer varchar(50))",
+                "create table sales_order_line(id int auto_increment primary key, product varchar(50), "
+                        + "sales_order_id int references sales_order(id))",
+                "create table team(id int auto_increment primary key, name varchar(50))",
+                "create table member(id int auto_increment primary key, name varchar(50), "
+                        + "team_id int references team(id))");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void updateFirstCascadesCollectionsOnlyAfterTheParentExists() {
+        final Repository<SalesOrder, Integer> orders = new Session(pool).getRepository(SalesOrder.class);
+        orders.setSaveStrategy(SaveStrategy.UPDATE_FIRST);
+
+        final SalesOrder order = new SalesOrder();
+        order.setId(999);
+        order.setCustomer("missing");
+
+        final SalesOrderLine line = new SalesOrderLine();
+        line.setProduct("keyboard");
+        order.setLines(new ArrayList<>(Collections.singletonList(line)));
+
+        orders.saveAll(Collections.singletonList(order));
+
+        assertNotEquals(999, order.getId());
+        assertEquals(order.getId(), line.getSalesOrderId());
+
+        final Repository<SalesOrderLine, Integer> lines = new Session(pool).getRepository(SalesOrderLine.class);
+        assertEquals(order.getId(), lines.find(line.getId()).getSalesOrderId());
+    }
+
+    @Test
+    void createAlwaysInsertsEvenForAnInstanceThatWasSavedBefore() {
+        final Repository<SalesOrder, Integer> orders = new Session(pool).getRepository(SalesOrder.class);
+        final SalesOrder order = new SalesOrder();
+        order.setCustomer("created twice");
+
+        orders.save(order);
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            assertEquals(order, orders.create(order));
+            assertEquals(1, recorder.getStatements().size());
+        }
+
+        assertEquals(2, TestDatabase.queryLong(DATABASE,
+                "select count(*) from sales_order where customer = 'created twice'"));
+    }
+
+    @Test
+    void cascadeThroughTheParentCollectionInsertsTheChildOnce() {
+        final Repository<Member, Integer> members = new Session(pool).getRepository(Member.class);
+        final Team team = new Team();
+        final Member member = new Member();
+
+        team.setName("cyclic");
+        member.setName("cyclic member");
+        member.setTeam(team);
+        team.setMembers(new ArrayList<>(Collections.singletonList(member)));
+
+        members.create(member);
+
+        assertEquals(1, TestDatabase.queryLong(DATABASE, "select count(*) from member where name = 'cyclic member'"));
+        assertEquals(team.getId().longValue(), TestDatabase.queryLong(DATABASE,
+                "select team_id from member where id = " + member.getId()));
+    }
+
+    public static class SalesOrder implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String customer;
+        @OneToMany(column = "sales_order_id")
+        private List<SalesOrderLine> lines;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getCustomer() {
+            return customer;
+        }
+
+        public void setCustomer(final String customer) {
+            this.customer = customer;
+        }
+
+        public List<SalesOrderLine> getLines() {
+            return lines;
+        }
+
+        public void setLines(final List<SalesOrderLine> lines) {
+            this.lines = lines;
+        }
+    }
+
+    public static class SalesOrderLine implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String product;
+        private Integer salesOrderId;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getProduct() {
+            return product;
+        }
+
+        public void setProduct(final String product) {
+            this.product = product;
+        }
+
+        public Integer getSalesOrderId() {
+            return salesOrderId;
+        }
+
+        public void setSalesOrderId(final Integer salesOrderId) {
+            this.salesOrderId = salesOrderId;
+        }
+    }
+
+    public static class Team implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String name;
+        @OneToMany(column = "team_id")
+        private List<Member> members;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        public List<Member> getMembers() {
+            return members;
+        }
+
+        public void setMembers(final List<Member> members) {
+            this.members = members;
+        }
+    }
+
+    public static class Member implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String name;
+        @ManyToOne(column = "team_id")
+        private Team team;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        public Team getTeam() {
+            return team;
+        }
+
+        public void setTeam(final Team team) {
+            this.team = team;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Id;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirtyCheckingTest {
+    private static final String DATABASE = "dirty_checking";
+
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool(DATABASE,
+                "create table account(id int auto_increment primary key, owner varchar(50), balance int)");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void unchangedSaveIssuesNoStatement() {
+        final Repository<Account, Integer> accounts = new Session(pool).getRepository(Account.class);
+        final Account account = accounts.save(newAccount("unchanged", 10));
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            accounts.save(account);
+
+            assertTrue(recorder.getStatements().isEmpty());
+        }
+    }
+
+    @Test
+    void changedSaveUpdatesOnlyTheChangedColumns() {
+        final Integer id = new Session(pool).getRepository(Account.class).save(newAccount("changed", 10)).getId();
+        final Repository<Account, Integer> accounts = new Session(pool).getRepository(Account.class);
+        final Account account = accounts.find(id);
+
+        account.setBalance(25);
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            accounts.save(account);
+
+            assertEquals(List.of("update account set balance = ? where id = ?"), recorder.getStatements());
+        }
+
+        assertEquals(25, TestDatabase.queryLong(DATABASE, "select balance from account where id = " + id));
+    }
+
+    @Test
+    void saveAfterDeleteByIdInsertsTheRowAgain() {
+        final Repository<Account, Integer> accounts = new Session(pool).getRepository(Account.class);
+        final Account account = accounts.find(accounts.save(newAccount("deleted by id", 10)).getId());
+
+        accounts.deleteById(account.getId());
+
+        assertNotNull(accounts.save(account));
+        assertEquals(1, countByOwner("deleted by id"));
+    }
+
+    @Test
+    void saveAfterDeleteAllByIdInsertsTheRowAgain() {
+        final Repository<Account, Integer> accounts = new Session(pool).getRepository(Account.class);
+        final Account account = accounts.save(newAccount("deleted by ids", 10));
+
+        accounts.deleteAllById(Collections.singletonList(account.getId()));
+
+        assertNotNull(accounts.save(account));
+        assertEquals(1, countByOwner("deleted by ids"));
+    }
+
+    @Test
+    void saveAfterDeleteWhereInsertsTheRowAgain() {
+        final Repository<Account, Integer> accounts = new Session(pool).getRepository(Account.class);
+        final Account account = accounts.save(newAccount("deleted where", 10));
+
+        accounts.deleteWhere("owner", "deleted where");
+
+        assertNotNull(accounts.save(account));
+        assertEquals(1, countByOwner("deleted where"));
+    }
+
+    @Test
+    void changedSaveOfARowDeletedElsewhereInsertsTheRowAgain() {
+        final Repository<Account, Integer> accounts = new Session(pool).getRepository(Account.class);
+        final Account account = accounts.save(newAccount("deleted elsewhere", 10));
+
+        TestDatabase.execute(DATABASE, "delete from account where id = " + account.getId());
+        account.setBalance(30);
+
+        assertNotNull(accounts.save(account));
+        assertEquals(1, countByOwner("deleted elsewhere"));
+    }
+
+    private static long countByOwner(final String owner) {
+        return TestDatabase.queryLong(DATABASE, "select count(*) from account where owner = '" + owner + "'");
+    }
+
+    private static Account newAccount(final String owner, final int balance) {
+        final Account account = new Account();
+        account.setOwner(owner);
+        account.setBalance(balance);
+        return account;
+    }
+
+    public static class Account implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String owner;
+        private int balance;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public void setOwner(final String owner) {
+            this.owner = owner;
+        }
+
+        public int getBalance() {
+            return balance;
+        }
+
+        public void setBalance(final int balance) {
+            this.balance = balance;
+        }
+    }
+}
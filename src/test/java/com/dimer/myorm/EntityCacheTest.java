@@ -0,0 +1,99 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Cacheable;
+import com.dimer.myorm.annotations.Id;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityCacheTest {
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool("entity_cache",
+                "create table country(id int primary key, name varchar(50))",
+                "insert into country values (1, 'Brasil'), (2, 'Chile'), (3, 'Peru')");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void readStartedBeforeInvalidationIsNotCached() {
+        final EntityCache cache = new EntityCache(10, 60);
+        final long readStamp = EntityCache.readStamp();
+
+        cache.invalidate(1);
+        cache.putIfAbsent(1, new Object[]{"old"}, readStamp);
+
+        assertNull(cache.get(1));
+
+        cache.putIfAbsent(1, new Object[]{"new"}, EntityCache.readStamp());
+
+        assertNotNull(cache.get(1));
+    }
+
+    @Test
+    void readStartedBeforeClearIsNotCached() {
+        final EntityCache cache = new EntityCache(10, 60);
+        final long readStamp = EntityCache.readStamp();
+
+        cache.clear();
+        cache.putIfAbsent(1, new Object[]{"old"}, readStamp);
+
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void cachedEntityIsInvalidatedByUpdateAndDelete() {
+        new Session(pool).getRepository(Country.class).find(1);
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            assertEquals("Brasil", new Session(pool).getRepository(Country.class).find(1).getName());
+            assertTrue(recorder.getStatements().isEmpty());
+        }
+
+        final Repository<Country, Integer> countries = new Session(pool).getRepository(Country.class);
+        final Country country = countries.find(1);
+        country.setName("Brazil");
+        countries.save(country);
+
+        assertEquals("Brazil", new Session(pool).getRepository(Country.class).find(1).getName());
+
+        countries.deleteById(1);
+
+        assertNull(new Session(pool).getRepository(Country.class).find(1));
+    }
+
+    @Cacheable
+    public static class Country implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String name;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Id;
+import com.dimer.myorm.annotations.ManyToOne;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EntityCursorTest {
+    private static final String DATABASE = "entity_cursor";
+
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool(DATABASE,
+                "create table audit_entry(id int auto_increment primary key, message varchar(50))",
+                "insert into audit_entry(message) select 'entry-' || x from system_range(1, 20)",
+                "create table customer(id int primary key, name varchar(50))",
+                "create table invoice(id int primary key, customer_id int)",
+                "insert into customer values (1, 'first'), (2, 'second')",
+                "insert into invoice select x, mod(x, 2) + 1 from system_range(1, 12)");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void writesWhileStreamingAreNotHeldByTheCursor() throws SQLException {
+        final Session session = new Session(pool);
+        final Repository<AuditEntry, Integer> repository = session.getRepository(AuditEntry.class);
+        repository.setFetchSize(5);
+
+        try (Stream<AuditEntry> stream = repository.stream()) {
+            final Iterator<AuditEntry> entries = stream.iterator();
+            assertTrue(entries.hasNext());
+
+            final AuditEntry entry = new AuditEntry();
+            entry.setMessage("written while streaming");
+            repository.save(entry);
+
+            assertEquals(1, countCommitted("written while streaming"));
+            assertTrue(session.getConnection().getAutoCommit());
+            assertTrue(entries.hasNext());
+        }
+
+        session.close();
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    @Test
+    void relationsAreLoadedOnTheConnectionOfTheCursor() {
+        final ConnectionPool singlePool = new ConnectionPool(() -> TestDatabase.connect(DATABASE));
+        singlePool.setMaxSize(1);
+        singlePool.setAcquireTimeoutMillis(500);
+
+        final Session session = new Session(singlePool);
+        final Repository<Invoice, Integer> repository = session.getRepository(Invoice.class);
+        repository.setFetchSize(5);
+
+        try (Stream<Invoice> stream = repository.stream()) {
+            assertEquals(12, stream.filter(invoice -> invoice.getCustomer() != null).count());
+        }
+
+        assertEquals(0, singlePool.getActiveConnections());
+
+        session.close();
+        singlePool.close();
+    }
+
+    private static long countCommitted(final String message) {
+        return TestDatabase.queryLong(DATABASE, "select count(*) from audit_entry where message = '" + message + "'");
+    }
+
+    public static class AuditEntry implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String message;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(final String message) {
+            this.message = message;
+        }
+    }
+
+    public static class Customer implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String name;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Invoice implements Entity<Integer> {
+        @Id
+        private Integer id;
+        @ManyToOne(column = "customer_id")
+        private Customer customer;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public Customer getCustomer() {
+            return customer;
+        }
+
+        public void setCustomer(final Customer customer) {
+            this.customer = customer;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Id;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdentityMapTest {
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool("identity_map",
+                "create table product(id int primary key, name varchar(50))",
+                "insert into product values (1, 'pen'), (2, 'ink')");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void sameRowIsMappedToTheSameInstanceWithinASession() {
+        final Session session = new Session(pool);
+        final Repository<Product, Integer> products = session.getRepository(Product.class);
+        final Product product = products.find(1);
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            assertSame(product, products.find(1));
+            assertTrue(recorder.getStatements().isEmpty());
+        }
+
+        assertSame(product, products.findAllByColumn("name", "pen").get(0));
+
+        session.clear();
+
+        assertNotSame(product, products.find(1));
+    }
+
+    @Test
+    void sessionsDoNotShareInstances() {
+        final Product first = new Session(pool).getRepository(Product.class).find(2);
+        final Product second = new Session(pool).getRepository(Product.class).find(2);
+
+        assertNotSame(first, second);
+        assertEquals(first.getName(), second.getName());
+    }
+
+    public static class Product implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String name;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Id;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetPaginationTest {
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool("keyset_pagination",
+                "create table visit(id int primary key, page varchar(20))",
+                "insert into visit select x, case when mod(x, 2) = 0 then 'home' else 'cart' end"
+                        + " from system_range(1, 20)");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void pagesFollowTheLastIdUntilTheEnd() {
+        final Repository<Visit, Integer> visits = new Session(pool).getRepository(Visit.class);
+        final List<Integer> sizes = new ArrayList<>();
+        final List<Integer> ids = new ArrayList<>();
+
+        Page<Visit, Integer> page = visits.findPage(null, 7);
+        sizes.add(page.getContent().size());
+        page.getContent().forEach(visit -> ids.add(visit.getId()));
+
+        while (page.hasNext()) {
+            page = page.next();
+            sizes.add(page.getContent().size());
+            page.getContent().forEach(visit -> ids.add(visit.getId()));
+        }
+
+        assertEquals(List.of(7, 7, 6), sizes);
+
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1, ids.get(i));
+        }
+    }
+
+    @Test
+    void pageByColumnStartsAfterTheGivenId() {
+        final Repository<Visit, Integer> visits = new Session(pool).getRepository(Visit.class);
+        final Page<Visit, Integer> page = visits.findPageByColumn("page", "home", 10, 3);
+
+        assertEquals(List.of(12, 14, 16), page.getContent().stream().map(Visit::getId).collect(Collectors.toList()));
+        assertTrue(page.hasNext());
+
+        final Page<Visit, Integer> last = visits.findPageByColumn("page", "home", 16, 3);
+
+        assertEquals(2, last.getContent().size());
+        assertFalse(last.hasNext());
+    }
+
+    public static class Visit implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String page;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getPage() {
+            return page;
+        }
+
+        public void setPage(final String page) {
+            this.page = page;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.FetchType;
+import com.dimer.myorm.annotations.Id;
+import com.dimer.myorm.annotations.ManyToOne;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyLoadingTest {
+    private static final String DATABASE = "lazy_loading";
+
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool(DATABASE,
+                "create table author(id int auto_increment primary key, name varchar(50))",
+                "create table book(id int auto_increment primary key, title varchar(50), author_id int)",
+                "insert into author(name) values ('Machado')",
+                "insert into book(title, author_id) values ('Dom Casmurro', 1)");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void lazyRelationIsLoadedOnceOnFirstAccess() {
+        final Repository<Book, Integer> books = new Session(pool).getRepository(Book.class);
+        final Book book = books.find(1);
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            assertTrue(recorder.getStatements().isEmpty());
+            assertEquals("Machado", book.getAuthor().getName());
+            assertEquals("Machado", book.getAuthor().getName());
+            assertEquals(1, recorder.getStatements().size());
+        }
+    }
+
+    @Test
+    void failedLazyLoadIsRetriedOnTheNextAccess() {
+        final Repository<Book, Integer> books = new Session(pool).getRepository(Book.class);
+        final Book book = books.find(1);
+
+        TestDatabase.execute(DATABASE, "alter table author rename to author_moved");
+
+        try {
+            assertThrows(RuntimeException.class, book::getAuthor);
+        } finally {
+            TestDatabase.execute(DATABASE, "alter table author_moved rename to author");
+        }
+
+        assertEquals("Machado", book.getAuthor().getName());
+    }
+
+    public static class Author implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String name;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Book implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String title;
+        @ManyToOne(column = "author_id", fetchType = FetchType.LAZY)
+        private Author author;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(final String title) {
+            this.title = title;
+        }
+
+        public Author getAuthor() {
+            return author;
+        }
+
+        public void setAuthor(final Author author) {
+            this.author = author;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Id;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParallelScanTest {
+    private static final int ROWS = 500;
+
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool("parallel_scan",
+                "create table scan_item(id int primary key, label varchar(20))",
+                "insert into scan_item select x, 'item-' || x from system_range(1, " + ROWS + ")");
+        pool.setMaxSize(2);
+        pool.setAcquireTimeoutMillis(3000);
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void orderedScanWithMorePartitionsThanConnections() {
+        final Repository<ScanItem, Integer> repository = new Session(pool).getRepository(ScanItem.class);
+        repository.setFetchSize(10);
+
+        final List<Integer> ids;
+
+        try (Stream<ScanItem> stream = repository.parallelScan(4, true)) {
+            ids = stream.map(ScanItem::getId).collect(Collectors.toList());
+        }
+
+        assertEquals(ROWS, ids.size());
+
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i + 1, ids.get(i));
+        }
+
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    @Test
+    void consumerScanWithMorePartitionsThanConnections() {
+        final Repository<ScanItem, Integer> repository = new Session(pool).getRepository(ScanItem.class);
+        final AtomicInteger count = new AtomicInteger();
+
+        repository.setFetchSize(10);
+        repository.parallelScan(8, entity -> count.incrementAndGet());
+
+        assertEquals(ROWS, count.get());
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    @Test
+    void abandonedStreamReleasesItsConnections() throws InterruptedException {
+        final Repository<ScanItem, Integer> repository = new Session(pool).getRepository(ScanItem.class);
+        final List<long[]> ranges = Arrays.asList(new long[]{1, ROWS / 2}, new long[]{ROWS / 2 + 1, ROWS});
+        final Iterator<ScanItem> scan = new ParallelScan<>(repository, ranges, false, 10, 2,
+                AsyncRepository.defaultExecutor(), 200);
+
+        assertTrue(scan.hasNext());
+        scan.next();
+
+        for (int i = 0; i < 50 && pool.getActiveConnections() > 0; i++) {
+            Thread.sleep(100);
+        }
+
+        assertEquals(0, pool.getActiveConnections());
+        assertThrows(RuntimeException.class, scan::hasNext);
+    }
+
+    public static class ScanItem implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String label;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(final String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Cacheable;
+import com.dimer.myorm.annotations.Id;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryCacheTest {
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool("query_cache",
+                "create table city(id int auto_increment primary key, name varchar(50), region varchar(20))",
+                "insert into city(name, region) values ('Curitiba', 'south'), ('Recife', 'northeast'),"
+                        + " ('Joinville', 'south')");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void cachedQueryIsInvalidatedByWrites() {
+        assertEquals(2, new Session(pool).getRepository(City.class).findAllByColumn("region", "south").size());
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            assertEquals(2, new Session(pool).getRepository(City.class).findAllByColumn("region", "south").size());
+            assertTrue(recorder.getStatements().isEmpty());
+        }
+
+        final Repository<City, Integer> cities = new Session(pool).getRepository(City.class);
+        cities.create(newCity("Pelotas", "south"));
+
+        assertEquals(3, new Session(pool).getRepository(City.class).findAllByColumn("region", "south").size());
+
+        cities.deleteWhere("name", "Curitiba");
+
+        assertEquals(2, new Session(pool).getRepository(City.class).findAllByColumn("region", "south").size());
+    }
+
+    private static City newCity(final String name, final String region) {
+        final City city = new City();
+        city.setName(name);
+        city.setRegion(region);
+        return city;
+    }
+
+    @Cacheable(queryCacheSize = 10)
+    public static class City implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String name;
+        private String region;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+
+        public String getRegion() {
+            return region;
+        }
+
+        public void setRegion(final String region) {
+            this.region = region;
+        }
+    }
+}
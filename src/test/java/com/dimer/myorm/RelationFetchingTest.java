@@ -0,0 +1,252 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.FetchType;
+import com.dimer.myorm.annotations.Id;
+import com.dimer.myorm.annotations.ManyToOne;
+import com.dimer.myorm.annotations.OneToMany;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RelationFetchingTest {
+    private static final String DATABASE = "relation_fetching";
+
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool(DATABASE,
+                "create table client(id int primary key, name varchar(50))",
+                "create table bill(id int primary key, client_id int)",
+                "insert into client select x, 'client-' || x from system_range(1, 3)",
+                "insert into bill select x, mod(x, 3) + 1 from system_range(1, 9)",
+                "create table delivery(id int primary key, client_id int)",
+                "insert into delivery select x, case when x < 5 then mod(x, 3) + 1 end from system_range(1, 6)",
+                "create table route(id int primary key)",
+                "create table carrier(id int primary key)",
+                "create table stop(id int primary key, route_id int, carrier_id int)",
+                "insert into route select x from system_range(1, 4)",
+                "insert into carrier select x from system_range(1, 4)",
+                "insert into stop select x, mod(x, 3) + 1, mod(x, 3) + 1 from system_range(1, 12)");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void manyToOneOfAllRowsIsLoadedInOneQuery() {
+        final Repository<Bill, Integer> bills = new Session(pool).getRepository(Bill.class);
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            final List<Bill> result = bills.findAll();
+
+            assertEquals(9, result.size());
+            assertEquals(2, recorder.getStatements().size());
+            assertTrue(recorder.getStatements().get(1).startsWith("select * from client where id in ("));
+            assertSame(result.get(0).getClient(), result.get(3).getClient());
+        }
+    }
+
+    @Test
+    void joinFetchedManyToOneIsReadWithTheRows() {
+        final Repository<Delivery, Integer> deliveries = new Session(pool).getRepository(Delivery.class);
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            final List<Delivery> result = deliveries.findAll();
+
+            assertEquals(6, result.size());
+            assertEquals(1, recorder.getStatements().size());
+            assertEquals("client-2", result.get(0).getClient().getName());
+            assertSame(result.get(0).getClient(), result.get(3).getClient());
+            assertNull(result.get(5).getClient());
+        }
+    }
+
+    @Test
+    void eagerCollectionsOfAllRowsAreLoadedInOneQuery() {
+        final Repository<Route, Integer> routes = new Session(pool).getRepository(Route.class);
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            final List<Route> result = routes.findAll();
+
+            assertEquals(2, recorder.getStatements().size());
+            assertTrue(recorder.getStatements().get(1).startsWith("select * from stop where route_id in ("));
+            assertEquals(4, result.get(0).getStops().size());
+            assertTrue(result.get(3).getStops().isEmpty());
+        }
+    }
+
+    @Test
+    void touchingOneLazyCollectionLoadsItsSiblings() {
+        final Repository<Carrier, Integer> carriers = new Session(pool).getRepository(Carrier.class);
+        final List<Carrier> result = carriers.findAll();
+
+        try (SqlRecorder recorder = SqlRecorder.start()) {
+            assertEquals(4, result.get(0).getStops().size());
+            assertEquals(4, result.get(1).getStops().size());
+            assertTrue(result.get(3).getStops().isEmpty());
+
+            assertEquals(1, recorder.getStatements().size());
+        }
+    }
+
+    public static class Client implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String name;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(final String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Bill implements Entity<Integer> {
+        @Id
+        private Integer id;
+        @ManyToOne(column = "client_id")
+        private Client client;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public Client getClient() {
+            return client;
+        }
+
+        public void setClient(final Client client) {
+            this.client = client;
+        }
+    }
+
+    public static class Delivery implements Entity<Integer> {
+        @Id
+        private Integer id;
+        @ManyToOne(column = "client_id", fetchType = FetchType.JOIN)
+        private Client client;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public Client getClient() {
+            return client;
+        }
+
+        public void setClient(final Client client) {
+            this.client = client;
+        }
+    }
+
+    public static class Route implements Entity<Integer> {
+        @Id
+        private Integer id;
+        @OneToMany(column = "route_id", fetchType = FetchType.EAGER)
+        private List<Stop> stops;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public List<Stop> getStops() {
+            return stops;
+        }
+
+        public void setStops(final List<Stop> stops) {
+            this.stops = stops;
+        }
+    }
+
+    public static class Carrier implements Entity<Integer> {
+        @Id
+        private Integer id;
+        @OneToMany(column = "carrier_id")
+        private List<Stop> stops;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public List<Stop> getStops() {
+            return stops;
+        }
+
+        public void setStops(final List<Stop> stops) {
+            this.stops = stops;
+        }
+    }
+
+    public static class Stop implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private Integer routeId;
+        private Integer carrierId;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public Integer getRouteId() {
+            return routeId;
+        }
+
+        public void setRouteId(final Integer routeId) {
+            this.routeId = routeId;
+        }
+
+        public Integer getCarrierId() {
+            return carrierId;
+        }
+
+        public void setCarrierId(final Integer carrierId) {
+            this.carrierId = carrierId;
+        }
+    }
+}
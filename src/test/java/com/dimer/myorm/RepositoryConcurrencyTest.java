@@ -0,0 +1,116 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Id;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RepositoryConcurrencyTest {
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 200;
+
+    @BeforeAll
+    static void setUp() {
+        ConnectionFactory.setFactory(TestDatabase.createFactory("concurrency",
+                "create table purchase_order(id int auto_increment primary key, customer varchar(50), total int)"));
+    }
+
+    @AfterAll
+    static void tearDown() {
+        ConnectionFactory.setFactory(null);
+    }
+
+    @Test
+    void sharedRepositoryUsesTheSessionOfEachThread() throws Exception {
+        final Repository<PurchaseOrder, Integer> repository = Repository.of(PurchaseOrder.class);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Session>> results = new ArrayList<>();
+
+        try {
+            for (int thread = 0; thread < THREADS; thread++) {
+                final String customer = "customer-" + thread;
+
+                results.add(executor.submit(() -> {
+                    start.await();
+
+                    for (int i = 0; i < OPERATIONS; i++) {
+                        final PurchaseOrder order = new PurchaseOrder();
+                        order.setCustomer(customer);
+                        order.setTotal(i);
+
+                        repository.save(order);
+
+                        final PurchaseOrder loaded = repository.find(order.getId());
+
+                        assertNotNull(loaded);
+                        assertEquals(customer, loaded.getCustomer());
+                        assertEquals(i, loaded.getTotal());
+                    }
+
+                    assertEquals(OPERATIONS, repository.findAllByColumn("customer", customer).size());
+
+                    return repository.getSession();
+                }));
+            }
+
+            start.countDown();
+
+            final List<Session> sessions = new ArrayList<>();
+
+            for (final Future<Session> result : results) {
+                sessions.add(result.get(60, TimeUnit.SECONDS));
+            }
+
+            assertNotSame(sessions.get(0), sessions.get(1));
+            assertTrue(ConnectionFactory.getPool().getCreatedCount() > 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static class PurchaseOrder implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String customer;
+        private int total;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getCustomer() {
+            return customer;
+        }
+
+        public void setCustomer(final String customer) {
+            this.customer = customer;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public void setTotal(final int total) {
+            this.total = total;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.dimer.myorm;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlLoggingTest {
+    private static final String SQL = "select ? as secret";
+
+    @Test
+    void slowQueryLogWritesTheSqlTemplateByDefault() throws SQLException {
+        final List<String> lines = new CopyOnWriteArrayList<>();
+
+        log(new SlowQueryLog(0, lines::add));
+
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).endsWith(SQL));
+        assertFalse(lines.get(0).contains("hunter2"));
+    }
+
+    @Test
+    void slowQueryLogWritesParametersWhenEnabled() throws SQLException {
+        final List<String> lines = new CopyOnWriteArrayList<>();
+
+        log(new SlowQueryLog(0, lines::add, true));
+
+        assertTrue(lines.get(0).contains("hunter2"));
+    }
+
+    @Test
+    void asyncLoggerWritesTheSqlTemplateByDefault() throws SQLException {
+        final List<String> lines = new CopyOnWriteArrayList<>();
+
+        try (AsyncSqlLogger logger = new AsyncSqlLogger(16, lines::add)) {
+            log(logger);
+        }
+
+        assertEquals(List.of("SQL: " + SQL), lines);
+    }
+
+    @Test
+    void asyncLoggerWritesParametersWhenEnabled() throws SQLException {
+        final List<String> lines = new CopyOnWriteArrayList<>();
+
+        try (AsyncSqlLogger logger = new AsyncSqlLogger(16, lines::add, true)) {
+            log(logger);
+        }
+
+        assertTrue(lines.get(0).contains("hunter2"));
+    }
+
+    private static void log(final SqlListener listener) throws SQLException {
+        try (Connection connection = TestDatabase.connect("sql_logging");
+             PreparedStatement statement = connection.prepareStatement(SQL)) {
+            statement.setString(1, "hunter2");
+            listener.onStatement(SQL, statement, 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.dimer.myorm;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+final class SqlRecorder implements SqlListener, AutoCloseable {
+    private final List<String> statements = new ArrayList<>();
+
+    private SqlRecorder() {
+    }
+
+    static SqlRecorder start() {
+        final SqlRecorder recorder = new SqlRecorder();
+        Instrumentation.setListeners(recorder);
+        return recorder;
+    }
+
+    @Override
+    public synchronized void onStatement(final String sql, final PreparedStatement statement, final long elapsedNanos) {
+        statements.add(sql);
+    }
+
+    synchronized List<String> getStatements() {
+        return new ArrayList<>(statements);
+    }
+
+    synchronized void clear() {
+        statements.clear();
+    }
+
+    @Override
+    public void close() {
+        Instrumentation.disable();
+    }
+}
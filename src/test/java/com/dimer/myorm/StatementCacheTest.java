@@ -0,0 +1,84 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Id;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StatementCacheTest {
+    private static final String DATABASE = "statement_cache";
+
+    @BeforeAll
+    static void setUp() {
+        TestDatabase.execute(DATABASE,
+                "create table gadget(id int primary key, color varchar(20), brand varchar(20), model varchar(20))",
+                "insert into gadget values (1, 'red', 'acme', 'x1'), (2, 'blue', 'acme', 'x2')");
+    }
+
+    @Test
+    void adHocQueriesReuseStatementsUpToTheCacheSize() {
+        try (Session session = new Session(TestDatabase.connect(DATABASE), 2)) {
+            final Repository<Gadget, Integer> gadgets = session.getRepository(Gadget.class);
+            final StatementCacheStats stats = session.getStatementCacheStats();
+
+            gadgets.findAllByColumn("color", "red");
+            gadgets.findAllByColumn("brand", "acme");
+            gadgets.findAllByColumn("color", "blue");
+
+            assertEquals(2, stats.getMisses());
+            assertEquals(1, stats.getHits());
+            assertEquals(0, stats.getEvictions());
+
+            gadgets.findAllByColumn("model", "x1");
+
+            assertEquals(3, stats.getMisses());
+            assertEquals(1, stats.getEvictions());
+
+            gadgets.findAllByColumn("color", "red");
+
+            assertEquals(2, stats.getHits());
+        }
+    }
+
+    public static class Gadget implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String color;
+        private String brand;
+        private String model;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getColor() {
+            return color;
+        }
+
+        public void setColor(final String color) {
+            this.color = color;
+        }
+
+        public String getBrand() {
+            return brand;
+        }
+
+        public void setBrand(final String brand) {
+            this.brand = brand;
+        }
+
+        public String getModel() {
+            return model;
+        }
+
+        public void setModel(final String model) {
+            this.model = model;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.dimer.myorm;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+final class TestDatabase {
+    private TestDatabase() {
+    }
+
+    static Connection connect(final String name) {
+        try {
+            return DriverManager.getConnection("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on connect to test database " + name, e);
+        }
+    }
+
+    static void execute(final String name, final String... statements) {
+        try (Connection connection = connect(name); Statement statement = connection.createStatement()) {
+            for (final String sql : statements) {
+                statement.execute(sql);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on execute statements on test database " + name, e);
+        }
+    }
+
+    static long queryLong(final String name, final String sql) {
+        try (Connection connection = connect(name); Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(sql)) {
+            return result.next() ? result.getLong(1) : 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error on query test database " + name, e);
+        }
+    }
+
+    static ConnectionPool createPool(final String name, final String... statements) {
+        execute(name, statements);
+        return new ConnectionPool(() -> connect(name));
+    }
+
+    static ConnectionFactory createFactory(final String name, final String... statements) {
+        execute(name, statements);
+
+        return new ConnectionFactory() {
+            @Override
+            protected Connection createConnection() {
+                return connect(name);
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.dimer.myorm;
+
+import com.dimer.myorm.annotations.Id;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TransactionTest {
+    private static final String DATABASE = "transaction";
+
+    private static ConnectionPool pool;
+
+    @BeforeAll
+    static void setUp() {
+        pool = TestDatabase.createPool(DATABASE,
+                "create table ledger(id int auto_increment primary key, memo varchar(50))");
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void nestedRollbackUndoesOnlyTheSavepoint() {
+        final Session session = new Session(pool);
+        final Repository<Ledger, Integer> ledgers = session.getRepository(Ledger.class);
+
+        session.begin();
+        ledgers.save(newLedger("outer"));
+
+        session.begin();
+        ledgers.save(newLedger("inner"));
+        session.rollback();
+
+        assertEquals(0, count("outer"));
+
+        session.commit();
+
+        assertFalse(session.isTransactionActive());
+        assertEquals(1, count("outer"));
+        assertEquals(0, count("inner"));
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    @Test
+    void failedTransactionRollsBackEveryWrite() {
+        final Session session = new Session(pool);
+        final Repository<Ledger, Integer> ledgers = session.getRepository(Ledger.class);
+
+        assertThrows(IllegalStateException.class, () -> session.inTransaction(s -> {
+            ledgers.save(newLedger("failed"));
+            s.inTransaction(nested -> ledgers.save(newLedger("failed")));
+            throw new IllegalStateException("abort");
+        }));
+
+        assertFalse(session.isTransactionActive());
+        assertEquals(0, count("failed"));
+        assertEquals(0, pool.getActiveConnections());
+    }
+
+    private static long count(final String memo) {
+        return TestDatabase.queryLong(DATABASE, "select count(*) from ledger where memo = '" + memo + "'");
+    }
+
+    private static Ledger newLedger(final String memo) {
+        final Ledger ledger = new Ledger();
+        ledger.setMemo(memo);
+        return ledger;
+    }
+
+    public static class Ledger implements Entity<Integer> {
+        @Id
+        private Integer id;
+        private String memo;
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        public void setId(final Integer id) {
+            this.id = id;
+        }
+
+        public String getMemo() {
+            return memo;
+        }
+
+        public void setMemo(final String memo) {
+            this.memo = memo;
+        }
+    }
+}